@@ -0,0 +1,103 @@
+package depavlo.repo;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import depavlo.OtpDemoApplication;
+import depavlo.model.User;
+
+/**
+ * The JMH benchmark of the user lookup by email on the H2 table with a million
+ * users. The exact match on the normalized email is compared with the case
+ * insensitive match that was used before and can not use the unique index.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EmailLookupBenchmark {
+
+	/** The count of users in the table. */
+	@Param({ "1000000" })
+	private int users;
+
+	/** The application context. */
+	private ConfigurableApplicationContext context;
+
+	/** The user repository. */
+	private UserRepository userRepository;
+
+	/** The jdbc template. */
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Starts the application and fills the users table.
+	 */
+	@Setup(Level.Trial)
+	public void start() {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		context = new SpringApplicationBuilder(OtpDemoApplication.class)
+				.properties("server.port=0",
+						"spring.datasource.url=jdbc:h2:mem:lookupbench;DB_CLOSE_DELAY=-1",
+						"spring.jpa.show-sql=false",
+						"logging.level.root=WARN",
+						"logging.level.depavlo=WARN",
+						"logging.level.org.springframework.jdbc.core.StatementCreatorUtils=INFO")
+				.run();
+		userRepository = context.getBean(UserRepository.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		jdbcTemplate.update("INSERT INTO users (email, name, last_name, birth_day, marital_status) "
+				+ "SELECT CONCAT('bench', X, '@ukr.net'), 'Bench', 'User', DATE '1980-01-31', 'SINGLE' "
+				+ "FROM SYSTEM_RANGE(1, ?)", users);
+	}
+
+	/**
+	 * Stops the application.
+	 */
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	@Benchmark
+	public Optional<User> findByEmail() {
+		return userRepository.findByEmail(randomEmail());
+	}
+
+	@Benchmark
+	public Long findByEmailIgnoreCase() {
+		return jdbcTemplate.queryForObject("SELECT user_id FROM users WHERE UPPER(email) = UPPER(?)", Long.class,
+				randomEmail());
+	}
+
+	/**
+	 * Gets the email of the random benchmark user.
+	 *
+	 * @return the email
+	 */
+	private String randomEmail() {
+		return "bench" + (ThreadLocalRandom.current().nextInt(users) + 1) + "@ukr.net";
+	}
+}
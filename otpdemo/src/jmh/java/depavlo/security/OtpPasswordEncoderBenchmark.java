@@ -0,0 +1,69 @@
+package depavlo.security;
+
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * The JMH benchmark of hashing and matching of the OTP by the encoders that can
+ * be selected by app.otp.hashAlgorithm.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OtpPasswordEncoderBenchmark {
+
+	/** The hash algorithm. */
+	@Param({ "hmac-sha256", "bcrypt" })
+	private String algorithm;
+
+	/** The password encoder. */
+	private PasswordEncoder passwordEncoder;
+
+	/** The OTP. */
+	private String password;
+
+	/** The encoded OTP. */
+	private String encodedPassword;
+
+	/**
+	 * Creates the encoder configured as in application.yml.
+	 */
+	@Setup
+	public void setup() {
+		passwordEncoder = "bcrypt".equals(algorithm)
+				? new BCryptPasswordEncoder(10)
+				: new HmacOtpPasswordEncoder(Base64.getDecoder().decode("RGVQYXZsbyBPVFAgSE1BQyBQZXBwZXIgS2V5"));
+		password = UUID.randomUUID().toString();
+		encodedPassword = passwordEncoder.encode(password);
+	}
+
+	@Benchmark
+	public String encode() {
+		return passwordEncoder.encode(password);
+	}
+
+	@Benchmark
+	public boolean matches() {
+		return passwordEncoder.matches(password, encodedPassword);
+	}
+}
@@ -0,0 +1,116 @@
+package depavlo.security.jwt;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import depavlo.security.UserPrincipal;
+import depavlo.service.UserService;
+import depavlo.store.EmbeddedSharedStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * The JMH benchmark of the JWT authentication filter with mocked user service.
+ * The filter is measured with and without the cache of verified tokens and
+ * with the principal built from the token or loaded by the user service.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+	/** Use the cache of verified tokens. */
+	@Param({ "true", "false" })
+	private boolean cached;
+
+	/** Build the principal from the token claims. */
+	@Param({ "true", "false" })
+	private boolean statelessPrincipal;
+
+	/** The filter. */
+	private JwtAuthenticationFilter filter;
+
+	/** The request with the bearer token. */
+	private MockHttpServletRequest request;
+
+	/**
+	 * Creates the filter with mocked user service and the request.
+	 */
+	@Setup
+	public void setup() {
+		JwtTokenProvider jwtTokenProvider = JwtTokenProviderBenchmark.newJwtTokenProvider();
+
+		UserPrincipal user = new UserPrincipal("user@ukr.net", "");
+		UserService userService = mock(UserService.class);
+		when(userService.isUserExists(anyString())).thenReturn(true);
+		when(userService.loadUserByUsername(anyString())).thenReturn(user);
+
+		JwtTokenCache jwtTokenCache;
+		if (cached) {
+			jwtTokenCache = new JwtTokenCache(new SimpleMeterRegistry());
+			ReflectionTestUtils.setField(jwtTokenCache, "tokenExpirationMsec", 86400000);
+			ReflectionTestUtils.setField(jwtTokenCache, "tokenCacheMaxSize", 10000L);
+			ReflectionTestUtils.invokeMethod(jwtTokenCache, "init");
+		} else {
+			jwtTokenCache = mock(JwtTokenCache.class);
+		}
+
+		// the revocation of the token is answered by the near cache after the first request
+		EmbeddedSharedStore sharedStore = new EmbeddedSharedStore();
+		ReflectionTestUtils.setField(sharedStore, "hubName", "benchmark");
+		ReflectionTestUtils.invokeMethod(sharedStore, "init");
+		TokenRevocationStore tokenRevocationStore = new TokenRevocationStore(sharedStore, jwtTokenProvider,
+				new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(tokenRevocationStore, "nearCacheMaxSize", 10000L);
+		ReflectionTestUtils.setField(tokenRevocationStore, "nearCacheTtlMsec", 30000L);
+		ReflectionTestUtils.invokeMethod(tokenRevocationStore, "init");
+
+		filter = new JwtAuthenticationFilter(userService, jwtTokenProvider, jwtTokenCache, tokenRevocationStore);
+		ReflectionTestUtils.setField(filter, "statelessPrincipal", statelessPrincipal);
+		ReflectionTestUtils.setField(filter, "failureLogIntervalMsec", 10000L);
+		ReflectionTestUtils.invokeMethod(filter, "init");
+
+		Authentication authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+		request = new MockHttpServletRequest("GET", "/api/v1/users/1");
+		request.addHeader("Authorization", "Bearer_" + jwtTokenProvider.createToken(authentication));
+	}
+
+	@Benchmark
+	public Authentication doFilterInternal() throws IOException, ServletException {
+		try {
+			filter.doFilterInternal(request, new MockHttpServletResponse(), new MockFilterChain());
+			return SecurityContextHolder.getContext().getAuthentication();
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package depavlo.security.jwt;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import depavlo.security.UserPrincipal;
+
+/**
+ * The JMH benchmark of creating, verifying and validating of the JWT token.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+
+	/** The jwt token provider. */
+	private JwtTokenProvider jwtTokenProvider;
+
+	/** The authentication of the user. */
+	private Authentication authentication;
+
+	/** The user details. */
+	private UserDetails userDetails;
+
+	/** The compact token. */
+	private String token;
+
+	/** The verified token. */
+	private VerifiedToken verifiedToken;
+
+	/**
+	 * Creates the provider configured as in application.yml and the token.
+	 */
+	@Setup
+	public void setup() {
+		jwtTokenProvider = newJwtTokenProvider();
+		userDetails = new UserPrincipal("user@ukr.net", "");
+		authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+		token = jwtTokenProvider.createToken(authentication);
+		verifiedToken = jwtTokenProvider.verifyToken(token);
+	}
+
+	@Benchmark
+	public String createToken() {
+		return jwtTokenProvider.createToken(authentication);
+	}
+
+	@Benchmark
+	public VerifiedToken verifyToken() {
+		return jwtTokenProvider.verifyToken(token);
+	}
+
+	/**
+	 * The path of the filter before the token was verified once: the username is
+	 * read from the token and the token is validated by the username, the
+	 * expiration and the issue date, and every claim parses the token again.
+	 *
+	 * @return true, if the token is valid
+	 */
+	@Benchmark
+	public boolean multiParseValidation() {
+		String username = jwtTokenProvider.getUsernameFromToken(token);
+		if (!username.equals(userDetails.getUsername())) {
+			return false;
+		}
+		Date now = new Date();
+		return jwtTokenProvider.getUsernameFromToken(token).equals(userDetails.getUsername())
+				&& !jwtTokenProvider.getExpirationDateFromToken(token).before(now)
+				&& now.getTime() - jwtTokenProvider.getIssuedDateFromToken(token).getTime() <= 86400000;
+	}
+
+	@Benchmark
+	public Boolean validateToken() {
+		return jwtTokenProvider.validateToken(token, userDetails);
+	}
+
+	@Benchmark
+	public boolean validateVerifiedToken() {
+		return jwtTokenProvider.validateToken(verifiedToken, userDetails);
+	}
+
+	@Benchmark
+	public boolean validateTokenWithoutUser() {
+		return jwtTokenProvider.validateToken(token);
+	}
+
+	/**
+	 * Creates the jwt token provider with the settings of application.yml.
+	 *
+	 * @return the jwt token provider
+	 */
+	static JwtTokenProvider newJwtTokenProvider() {
+		JwtTokenProvider provider = new JwtTokenProvider();
+		ReflectionTestUtils.setField(provider, "tokenExpirationMsec", 86400000);
+		ReflectionTestUtils.setField(provider, "tokenIssurer", "One Time Password Application");
+		ReflectionTestUtils.setField(provider, "tokenSecret",
+				"RGVQYXZsbyBKV1QgT25lIFRpbWUgUGFzc3dvcmQgQXBwbGljYXRpb24gU2VjcmV0IEtleQ==");
+		ReflectionTestUtils.setField(provider, "tokenPrefix", "Bearer_");
+		ReflectionTestUtils.invokeMethod(provider, "init");
+		return provider;
+	}
+}
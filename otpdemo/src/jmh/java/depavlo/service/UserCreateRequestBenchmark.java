@@ -0,0 +1,72 @@
+package depavlo.service;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import depavlo.ui.rest.v1.model.request.UserCreateRequest;
+import depavlo.util.AuditResponse;
+
+/**
+ * The JMH benchmark of the validation of the user create request.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserCreateRequestBenchmark {
+
+	/** The user service, the validation does not use its dependencies. */
+	private UserService userService;
+
+	/** The valid request. */
+	private UserCreateRequest validRequest;
+
+	/** The request with every field invalid. */
+	private UserCreateRequest invalidRequest;
+
+	/**
+	 * Creates the requests.
+	 */
+	@Setup
+	public void setup() {
+		userService = new UserService(null, null, null, null, null, null, null);
+
+		validRequest = new UserCreateRequest();
+		validRequest.setName("Pavlo");
+		validRequest.setLastName("Degtyaryev");
+		validRequest.setEmail("pavlo.degtyaryev@ukr.net");
+		validRequest.setBirthDay("1980-01-31");
+		validRequest.setMaritalStatus("MARRIED");
+
+		invalidRequest = new UserCreateRequest();
+		invalidRequest.setName("");
+		invalidRequest.setLastName("D");
+		invalidRequest.setEmail("pavlo.degtyaryev");
+		invalidRequest.setBirthDay("31.01.1980");
+		invalidRequest.setMaritalStatus("UNKNOWN");
+	}
+
+	@Benchmark
+	public AuditResponse checkValidRequest() {
+		return userService.checkUserCreateRequest(validRequest);
+	}
+
+	@Benchmark
+	public AuditResponse checkInvalidRequest() {
+		return userService.checkUserCreateRequest(invalidRequest);
+	}
+}
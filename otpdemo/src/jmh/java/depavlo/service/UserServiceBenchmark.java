@@ -0,0 +1,172 @@
+package depavlo.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.mail.internet.MimeMessage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import depavlo.OtpDemoApplication;
+import depavlo.model.Otp;
+import depavlo.model.User;
+
+/**
+ * The JMH benchmark of requesting the OTP and of the login with the OTP against
+ * the H2 database seeded by the dev profile. The request only queues the email,
+ * so the issue of the OTP done by the pipeline worker is measured separately.
+ * The emails are discarded instead of being sent, so only the application side
+ * of the hot path is measured.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+	/** The OTP used to login. */
+	private static final String PASSWORD = "f3a5b8a4-2a4c-4a33-9d4b-0c1f1bd8b0d4";
+
+	/** The application context. */
+	private ConfigurableApplicationContext context;
+
+	/** The user service. */
+	private UserService userService;
+
+	/** The otp service to repo. */
+	private OtpServiceToRepo otpServiceToRepo;
+
+	/** The otp issuer. */
+	private OtpIssuer otpIssuer;
+
+	/** The emails of the seeded users. */
+	private List<String> emails;
+
+	/** The email of the user that logs in. */
+	private String loginEmail;
+
+	/** The encoded OTP of the user that logs in. */
+	private String encodedPassword;
+
+	/** The index of the next user requesting the OTP. */
+	private int next;
+
+	/**
+	 * Starts the application. The OTP expires in one millisecond, so every
+	 * request replaces the OTP of the user instead of returning early.
+	 */
+	@Setup(Level.Trial)
+	public void start() {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		context = new SpringApplicationBuilder(OtpDemoApplication.class, DiscardMailConfig.class)
+				.profiles("dev")
+				.properties("server.port=0",
+						"spring.jpa.show-sql=false",
+						"spring.mail.debug=false",
+						"app.otp.tokenExpirationMsec=1",
+						"logging.level.root=WARN",
+						"logging.level.depavlo=WARN",
+						"logging.level.org.springframework.jdbc.core.StatementCreatorUtils=INFO")
+				.run();
+		userService = context.getBean(UserService.class);
+		otpServiceToRepo = context.getBean(OtpServiceToRepo.class);
+		otpIssuer = context.getBean(OtpIssuer.class);
+		emails = context.getBean(UserServiceToRepo.class).getUsersAfter(Long.MIN_VALUE, 1000).stream()
+				.map(User::getEmail)
+				.collect(Collectors.toList());
+		loginEmail = emails.remove(emails.size() - 1);
+		encodedPassword = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+	}
+
+	/**
+	 * Stops the application.
+	 */
+	@TearDown(Level.Trial)
+	public void stop() {
+		context.close();
+	}
+
+	/**
+	 * Issues the OTP of the user that logs in, as it is consumed by the login.
+	 */
+	@State(Scope.Benchmark)
+	public static class LoginState {
+
+		@Setup(Level.Invocation)
+		public void issueOtp(UserServiceBenchmark benchmark) {
+			benchmark.otpServiceToRepo.deleteByEmail(benchmark.loginEmail);
+			Otp otp = new Otp();
+			otp.setEmail(benchmark.loginEmail);
+			otp.setPassword(benchmark.encodedPassword);
+			otp.setExpired(new Date(System.currentTimeMillis() + 300000));
+			benchmark.otpServiceToRepo.save(otp);
+		}
+	}
+
+	@Benchmark
+	public void requestOtp() {
+		userService.requestOtp(emails.get(next++ % emails.size()));
+	}
+
+	@Benchmark
+	public Map<String, String> issueOtp() {
+		return otpIssuer.issue(List.of(emails.get(next++ % emails.size())));
+	}
+
+	@Benchmark
+	public String createBearerToken(LoginState loginState) {
+		try {
+			return userService.createBearerToken(loginEmail, PASSWORD);
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	/**
+	 * The Class DiscardMailConfig that replaces the SMTP mail sender. It is not
+	 * annotated with Configuration, so the component scan of the tests sharing the
+	 * test classes does not pick it up.
+	 */
+	public static class DiscardMailConfig {
+
+		@Bean
+		public JavaMailSender javaMailSender() {
+			return new JavaMailSenderImpl() {
+
+				@Override
+				public void send(SimpleMailMessage... simpleMessages) {
+				}
+
+				@Override
+				public void send(MimeMessage... mimeMessages) {
+				}
+			};
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package depavlo.ui.rest.v1;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import depavlo.model.User;
+import depavlo.ui.rest.v1.model.response.InfoResponse;
+import depavlo.ui.rest.v1.model.response.ValidationInfoResponse;
+import depavlo.util.MaritalStatus;
+
+/**
+ * The JMH benchmark of the JSON and XML serialization of the responses. The
+ * mappers are built as the message converters of Spring Boot build them.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+	/** The format of the response. */
+	@Param({ "json", "xml" })
+	private String format;
+
+	/** The object mapper. */
+	private ObjectMapper objectMapper;
+
+	/** The user. */
+	private User user;
+
+	/** The info response of the failed validation. */
+	private InfoResponse infoResponse;
+
+	/**
+	 * Creates the mapper and the responses.
+	 */
+	@Setup
+	public void setup() {
+		Jackson2ObjectMapperBuilder builder = "xml".equals(format)
+				? Jackson2ObjectMapperBuilder.xml()
+				: Jackson2ObjectMapperBuilder.json();
+		objectMapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+
+		user = new User();
+		user.setId(1L);
+		user.setEmail("user@ukr.net");
+		user.setName("Pavlo");
+		user.setLastName("Degtyaryev");
+		user.setBirthDay(LocalDate.of(1980, 1, 31));
+		user.setMaritalStatus(MaritalStatus.MARRIED);
+
+		infoResponse = new InfoResponse(HttpStatus.BAD_REQUEST,
+				"Bad request for create User. Please check your request for consistent of documentation.",
+				"Validation failed");
+		infoResponse.addSubInfo(new ValidationInfoResponse("name", "Field Name is too short."));
+		infoResponse.addSubInfo(new ValidationInfoResponse("email", "It's not like an email"));
+	}
+
+	@Benchmark
+	public byte[] writeUser() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(user);
+	}
+
+	@Benchmark
+	public byte[] writeInfoResponse() throws JsonProcessingException {
+		return objectMapper.writeValueAsBytes(infoResponse);
+	}
+}
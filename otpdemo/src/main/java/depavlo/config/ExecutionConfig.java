@@ -0,0 +1,93 @@
+package depavlo.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.AsyncListenableTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import depavlo.util.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class ExecutionConfig that chooses the threads which run the requests and
+ * the async tasks. By default they run on the platform thread pools. In the
+ * virtual threads mode each Tomcat request and each async task gets its own
+ * virtual thread, so the requests blocked on JDBC, hashing or SMTP do not
+ * exhaust the Tomcat worker pool, and the concurrency is limited by the
+ * connection pool and the max connections instead. The mail dispatch executor
+ * keeps its bounded pool, it is the back pressure of the SMTP server.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+@Configuration
+public class ExecutionConfig {
+
+	/** The property that enables the virtual threads mode. */
+	public static final String VIRTUAL_THREADS_PROPERTY = "app.execution.virtualThreads";
+
+	/** Whether the virtual threads mode is enabled. */
+	@Value("${" + VIRTUAL_THREADS_PROPERTY + "}")
+	private Boolean virtualThreads;
+
+	/**
+	 * Application task executor that runs the async tasks and the streamed
+	 * responses. Spring Boot does not create the default one when another
+	 * executor is declared, so it is declared here the same way.
+	 *
+	 * @param builder the task executor builder
+	 * @return the task executor
+	 */
+	@Primary
+	@Bean(name = { TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+			AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME })
+	public AsyncListenableTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+		if (useVirtualThreads()) {
+			log.info("applicationTaskExecutor] - Run async tasks on virtual threads");
+			return new SimpleAsyncTaskExecutor(VirtualThreads.factory("task-vt-"));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Tomcat protocol handler customizer that runs each request on its own
+	 * virtual thread.
+	 *
+	 * @return the tomcat protocol handler customizer
+	 */
+	@Bean
+	@ConditionalOnProperty(name = VIRTUAL_THREADS_PROPERTY, havingValue = "true")
+	public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsProtocolHandlerCustomizer() {
+		return protocolHandler -> {
+			if (useVirtualThreads()) {
+				log.info("virtualThreadsProtocolHandlerCustomizer] - Run Tomcat requests on virtual threads");
+				protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-vt-"));
+			}
+		};
+	}
+
+	/**
+	 * Checks if the virtual threads mode is enabled and the JDK supports it.
+	 *
+	 * @return true, if the virtual threads are used
+	 */
+	private boolean useVirtualThreads() {
+		if (!virtualThreads) {
+			return false;
+		}
+		if (!VirtualThreads.isSupported()) {
+			log.warn("useVirtualThreads] - Virtual threads require JDK 21 or newer, the platform threads are used");
+			return false;
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,66 @@
+package depavlo.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class MailDispatchConfig that configures the executor which sends OTP
+ * emails. The executor has a bounded queue, and when the queue is full the
+ * new task is rejected instead of piling up, so a slow SMTP server pushes back
+ * on the OTP requests.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+@Configuration
+public class MailDispatchConfig {
+
+	/** The name of the mail dispatch executor bean. */
+	public static final String MAIL_DISPATCH_EXECUTOR = "mailDispatchExecutor";
+
+	/** The count of always alive threads. */
+	@Value("${app.mail.dispatch.corePoolSize}")
+	private Integer corePoolSize;
+
+	/** The max count of threads. */
+	@Value("${app.mail.dispatch.maxPoolSize}")
+	private Integer maxPoolSize;
+
+	/** The capacity of the queue of waiting emails. */
+	@Value("${app.mail.dispatch.queueCapacity}")
+	private Integer queueCapacity;
+
+	/**
+	 * Mail dispatch executor.
+	 *
+	 * @param meterRegistry the meter registry
+	 * @return the thread pool task executor
+	 */
+	@Bean(name = MAIL_DISPATCH_EXECUTOR)
+	public ThreadPoolTaskExecutor mailDispatchExecutor(MeterRegistry meterRegistry) {
+		log.info("mailDispatchExecutor] - Create mail dispatch executor with {}-{} threads and queue of {}",
+				corePoolSize, maxPoolSize, queueCapacity);
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(corePoolSize);
+		executor.setMaxPoolSize(maxPoolSize);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("mail-dispatch-");
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(true);
+		executor.setAwaitTerminationSeconds(30);
+		executor.initialize();
+		ExecutorServiceMetrics.monitor(meterRegistry, executor.getThreadPoolExecutor(), "mail.dispatch",
+				Tags.empty());
+		return executor;
+	}
+
+}
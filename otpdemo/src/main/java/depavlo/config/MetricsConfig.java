@@ -0,0 +1,30 @@
+package depavlo.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The Class MetricsConfig that enables the timers of the methods annotated with
+ * Timed. Each timer is tagged with the class and the method name and with the
+ * exception that was thrown, if any.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Configuration
+public class MetricsConfig {
+
+	/**
+	 * Timed aspect.
+	 *
+	 * @param meterRegistry the meter registry
+	 * @return the timed aspect
+	 */
+	@Bean
+	public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+		return new TimedAspect(meterRegistry);
+	}
+
+}
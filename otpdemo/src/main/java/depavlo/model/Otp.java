@@ -8,8 +8,12 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -24,7 +28,7 @@ import lombok.Setter;
 @Getter
 @Setter
 @NoArgsConstructor
-@Table(name = "otp")
+@Table(name = "otp", indexes = { @Index(name = "idx_otp_expired", columnList = "expired") })
 @Entity
 public class Otp implements Serializable {
 
@@ -33,7 +37,9 @@ public class Otp implements Serializable {
 	/** The OTP id. */
 	@Id
 	@Column(name = "otp_id", updatable = false, nullable = false)
-	@GeneratedValue(strategy = GenerationType.AUTO)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "otp_seq")
+	@GenericGenerator(name = "otp_seq", strategy = "depavlo.model.PooledLoSequenceGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "otp_seq") })
 	private Long id;
 
 	/** The User email. */
@@ -0,0 +1,46 @@
+package depavlo.model;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * The Class PooledLoSequenceGenerator that allocates the ids by blocks with the
+ * pooled-lo optimizer. Each sequence call reserves the block of ids starting
+ * from the returned value, so the inserts of the block do not go to the database
+ * for the ids and can be sent in the JDBC batch. The block size is taken from
+ * the setting depavlo.id.allocationSize and must be equal to the increment of
+ * the database sequence.
+ *
+ * @author Pavlo Degtyaryev
+ */
+public class PooledLoSequenceGenerator extends SequenceStyleGenerator {
+
+	/** The setting of the count of ids allocated by one sequence call. */
+	public static final String ALLOCATION_SIZE = "depavlo.id.allocationSize";
+
+	/**
+	 * Configure the generator with the allocation size from the settings.
+	 *
+	 * @param type            the id type
+	 * @param params          the generator parameters
+	 * @param serviceRegistry the service registry
+	 * @throws MappingException the mapping exception
+	 */
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		Object allocationSize = serviceRegistry.getService(ConfigurationService.class).getSettings()
+				.get(ALLOCATION_SIZE);
+		if (allocationSize != null) {
+			params.setProperty(INCREMENT_PARAM, allocationSize.toString());
+		}
+		params.putIfAbsent(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+		super.configure(type, params, serviceRegistry);
+	}
+
+}
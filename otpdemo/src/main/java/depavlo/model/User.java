@@ -12,6 +12,9 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
 import depavlo.util.MaritalStatus;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -36,7 +39,9 @@ public class User implements Serializable {
 	/** The User id. */
 	@Id
 	@Column(name = "user_id", updatable = false, nullable = false)
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+	@GenericGenerator(name = "users_seq", strategy = "depavlo.model.PooledLoSequenceGenerator", parameters = {
+			@Parameter(name = "sequence_name", value = "users_seq") })
 	private Long id;
 
 	/** The User email. */
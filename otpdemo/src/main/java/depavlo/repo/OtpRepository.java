@@ -1,9 +1,15 @@
 package depavlo.repo;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import depavlo.model.Otp;
@@ -17,25 +23,63 @@ import depavlo.model.Otp;
 public interface OtpRepository extends JpaRepository<Otp, Long> {
 
 	/**
-	 * Find OTP by email ignore case.
+	 * Find OTP by email. The email must be normalized, so the lookup is the exact
+	 * match on the unique index.
 	 *
-	 * @param email the email
+	 * @param email the normalized email
 	 * @return the optional
 	 */
-	Optional<Otp> findByEmailIgnoreCase(String email);
+	Optional<Otp> findByEmail(String email);
 
 	/**
-	 * Delete OTP by email ignore case.
+	 * Find OTP by emails with one query. The emails must be normalized.
 	 *
-	 * @param email the email
+	 * @param emails the normalized emails
+	 * @return the found OTP
 	 */
-	void deleteOtpByEmailIgnoreCase(String email);
+	List<Otp> findByEmailIn(Collection<String> emails);
 
 	/**
-	 * Delete OTP by expired before.
+	 * Delete OTP by email.
 	 *
+	 * @param email the normalized email
+	 */
+	void deleteOtpByEmail(String email);
+
+	/**
+	 * Find the ids of OTP expired before the date. The page limits the count of
+	 * ids, so the OTP entities are not loaded.
+	 *
+	 * @param date     the date
+	 * @param pageable the page
+	 * @return the ids of expired OTP
+	 */
+	@Query("select o.id from Otp o where o.expired < :date order by o.id")
+	List<Long> findExpiredIds(@Param("date") Date date, Pageable pageable);
+
+	/**
+	 * Delete the expired OTP by ids with one bulk statement.
+	 *
+	 * @param ids  the ids of OTP
 	 * @param date the date
+	 * @return the count of deleted OTP
+	 */
+	@Modifying
+	@Query("delete from Otp o where o.id in :ids and o.expired < :date")
+	int deleteExpiredByIds(@Param("ids") Collection<Long> ids, @Param("date") Date date);
+
+	/**
+	 * Consume OTP. Deletes the OTP only if it still has the given hash and is not
+	 * expired, so of the concurrent logins with the same OTP only one deletes the
+	 * row.
+	 *
+	 * @param id       the OTP id
+	 * @param password the OTP hash that was verified
+	 * @param now      the current date
+	 * @return the count of deleted OTP, 1 if the OTP was consumed
 	 */
-	void deleteByExpiredBefore(Date date);
+	@Modifying
+	@Query("delete from Otp o where o.id = :id and o.password = :password and o.expired > :now")
+	int consume(@Param("id") Long id, @Param("password") String password, @Param("now") Date now);
 
 }
@@ -1,8 +1,19 @@
 package depavlo.repo;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import depavlo.model.User;
@@ -16,10 +27,41 @@ import depavlo.model.User;
 public interface UserRepository extends JpaRepository<User, Long> {
 
 	/**
-	 * Find User by email ignore case.
+	 * Find User by email. The email must be normalized, so the lookup is the exact
+	 * match on the unique index.
 	 *
-	 * @param email the email
+	 * @param email the normalized email
 	 * @return the optional
 	 */
-	Optional<User> findByEmailIgnoreCase(String email);
+	Optional<User> findByEmail(String email);
+
+	/**
+	 * Find Users by emails with one query. The emails must be normalized.
+	 *
+	 * @param emails the normalized emails
+	 * @return the found Users
+	 */
+	List<User> findByEmailIn(Collection<String> emails);
+
+	/**
+	 * Find the page of Users with id greater than given one, ordered by id. It is
+	 * the keyset pagination that seeks directly to the page start by the primary
+	 * key index instead of skipping the rows of previous pages.
+	 *
+	 * @param id       the id after which the page starts
+	 * @param pageable the pageable that limits the page size
+	 * @return the list of Users
+	 */
+	List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+	/**
+	 * Stream all Users ordered by id. The rows are fetched from the database by
+	 * portions, so the stream must be consumed inside a transaction and closed.
+	 *
+	 * @return the stream of Users
+	 */
+	@Query("select u from User u order by u.id")
+	@QueryHints({ @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = HINT_READONLY, value = "true") })
+	Stream<User> streamAllOrderById();
 }
@@ -0,0 +1,257 @@
+package depavlo.repo.serviceimpl;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import depavlo.model.Otp;
+import depavlo.service.OtpServiceToRepo;
+import depavlo.util.EmailNormalizer;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class InMemoryOtpServiceToRepo that keeps OTP in memory instead of the
+ * database. Every OTP is removed by the sweeper thread as soon as it expires.
+ * The store is not durable and not shared between application instances. It is
+ * enabled by the property app.otp.store=memory.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "memory")
+@Slf4j
+@RequiredArgsConstructor
+public class InMemoryOtpServiceToRepo implements OtpServiceToRepo {
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** The OTP by lower case email. */
+	private final Map<String, Otp> store = new ConcurrentHashMap<>();
+
+	/** The queue of OTP waiting for expiration. */
+	private final DelayQueue<Expiration> expirations = new DelayQueue<>();
+
+	/** The OTP id sequence. */
+	private final AtomicLong sequence = new AtomicLong();
+
+	/** The sweeper thread. */
+	private Thread sweeper;
+
+	/**
+	 * Starts the sweeper thread.
+	 */
+	@PostConstruct
+	private void start() {
+		log.info("start] - Use in-memory OTP store");
+		sweeper = new Thread(this::sweep, "otp-sweeper");
+		sweeper.setDaemon(true);
+		sweeper.start();
+	}
+
+	/**
+	 * Stops the sweeper thread.
+	 */
+	@PreDestroy
+	private void stop() {
+		sweeper.interrupt();
+	}
+
+	/**
+	 * Load otp by username.
+	 *
+	 * @param username the username
+	 * @return the optional
+	 */
+	@Override
+	@Timed("otp.repo")
+	public Optional<Otp> loadOtpByUsername(@NonNull String username) {
+		log.debug("loadOtpByUsername] - Perform to load OTP by Email '{}'", username);
+		return Optional.ofNullable(store.get(key(username)));
+	}
+
+	/**
+	 * Load otp by usernames.
+	 *
+	 * @param usernames the usernames
+	 * @return the found otp
+	 */
+	@Override
+	@Timed("otp.repo")
+	public List<Otp> loadOtpsByUsernames(@NonNull Collection<String> usernames) {
+		log.debug("loadOtpsByUsernames] - Perform to load {} OTP by Email", usernames.size());
+		return usernames.stream()
+				.map(username -> store.get(key(username)))
+				.filter(Objects::nonNull)
+				.distinct()
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Save otp.
+	 *
+	 * @param otp the otp
+	 * @return the optional
+	 */
+	@Override
+	@Timed("otp.repo")
+	public Optional<Otp> save(@NonNull Otp otp) {
+		log.debug("save] - Perform to save OTP");
+		if (otp.getId() == null) {
+			otp.setId(sequence.incrementAndGet());
+		}
+		String key = key(otp.getEmail());
+		store.put(key, otp);
+		expirations.put(new Expiration(key, otp));
+		return Optional.of(otp);
+	}
+
+	/**
+	 * Replace otp. The replaced otp is removed only if it is still stored.
+	 *
+	 * @param replaced the otp to delete
+	 * @param otps     the otp to save
+	 * @return the saved otp
+	 */
+	@Override
+	@Timed("otp.repo")
+	public List<Otp> replaceAll(@NonNull Collection<Otp> replaced, @NonNull List<Otp> otps) {
+		log.debug("replaceAll] - Perform to replace {} OTP and save {} OTP", replaced.size(), otps.size());
+		replaced.forEach(otp -> store.remove(key(otp.getEmail()), otp));
+		otps.forEach(this::save);
+		return otps;
+	}
+
+	/**
+	 * Delete otp by email.
+	 *
+	 * @param email the email
+	 */
+	@Override
+	@Timed("otp.repo")
+	public void deleteByEmail(@NonNull String email) {
+		log.debug("deleteByEmail] - Perform to delete OTP by email: {}", email);
+		store.remove(key(email));
+	}
+
+	/**
+	 * Consume otp. The entry is removed only if it is still the same OTP.
+	 *
+	 * @param otp the otp
+	 * @return true, if the otp was consumed by this call
+	 */
+	@Override
+	@Timed("otp.repo")
+	public boolean consume(@NonNull Otp otp) {
+		log.debug("consume] - Perform to consume OTP by email: {}", otp.getEmail());
+		return otp.getExpired().after(new Date()) && store.remove(key(otp.getEmail()), otp);
+	}
+
+	/**
+	 * Delete otp before date. The expired OTP are removed by the sweeper, so this
+	 * only catches the entries the sweeper has not reached yet.
+	 *
+	 * @param date  the date
+	 * @param limit the max count of otp to delete
+	 * @return the count of deleted otp
+	 */
+	@Override
+	@Timed("otp.repo")
+	public int deleteOtpBefore(Date date, int limit) {
+		int count = 0;
+		for (Map.Entry<String, Otp> entry : store.entrySet()) {
+			if (count >= limit) {
+				break;
+			}
+			if (entry.getValue().getExpired().before(date) && store.remove(entry.getKey(), entry.getValue())) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Removes the OTP from the store as they expire.
+	 */
+	private void sweep() {
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				Expiration expiration = expirations.take();
+				// the OTP may have been replaced by a new one for the same email
+				if (store.remove(expiration.key, expiration.otp)) {
+					log.debug("sweep] - OTP for '{}' has expired", expiration.key);
+					meterRegistry.counter("otp.expired").increment();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Makes the store key from email.
+	 *
+	 * @param email the email
+	 * @return the key
+	 */
+	private static String key(String email) {
+		return EmailNormalizer.normalize(email);
+	}
+
+	/**
+	 * The Class Expiration that is the OTP waiting in the delay queue.
+	 */
+	private static class Expiration implements Delayed {
+
+		/** The store key. */
+		private final String key;
+
+		/** The OTP. */
+		private final Otp otp;
+
+		/** The expiration time in milliseconds. */
+		private final long expiredAt;
+
+		/**
+		 * Instantiates a new expiration.
+		 *
+		 * @param key the store key
+		 * @param otp the OTP
+		 */
+		Expiration(String key, Otp otp) {
+			this.key = key;
+			this.otp = otp;
+			this.expiredAt = otp.getExpired().getTime();
+		}
+
+		@Override
+		public long getDelay(TimeUnit unit) {
+			return unit.convert(expiredAt - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+		}
+
+		@Override
+		public int compareTo(Delayed other) {
+			return Long.compare(expiredAt, ((Expiration) other).expiredAt);
+		}
+	}
+
+}
@@ -1,24 +1,34 @@
 package depavlo.repo.serviceimpl;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import depavlo.model.Otp;
 import depavlo.repo.OtpRepository;
 import depavlo.service.OtpServiceToRepo;
+import depavlo.util.EmailNormalizer;
+import io.micrometer.core.annotation.Timed;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * The Class OtpServiceToRepoImpl.
+ * The Class OtpServiceToRepoImpl that keeps OTP in the database. It is the
+ * durable store and is used by default or with the property app.otp.store=jpa.
  * 
  * @author Pavlo Degtyaryev
  */
 @Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "jpa", matchIfMissing = true)
 @Transactional
 @RequiredArgsConstructor
 @Slf4j
@@ -34,9 +44,29 @@ public class OtpServiceToRepoImpl implements OtpServiceToRepo {
 	 * @return the optional
 	 */
 	@Override
+	@Timed("otp.repo")
 	public Optional<Otp> loadOtpByUsername(@NonNull String username) {
 		log.debug("loadOtpByUsername] - Perform to load OTP by Email '{}'", username);
-		return dao.findByEmailIgnoreCase(username);
+		return dao.findByEmail(EmailNormalizer.normalize(username));
+	}
+
+	/**
+	 * Load otp by usernames.
+	 *
+	 * @param usernames the usernames
+	 * @return the found otp
+	 */
+	@Override
+	@Timed("otp.repo")
+	@Transactional(readOnly = true)
+	public List<Otp> loadOtpsByUsernames(@NonNull Collection<String> usernames) {
+		log.debug("loadOtpsByUsernames] - Perform to load {} OTP by Email", usernames.size());
+		if (usernames.isEmpty()) {
+			return List.of();
+		}
+		return dao.findByEmailIn(usernames.stream()
+				.map(EmailNormalizer::normalize)
+				.collect(Collectors.toSet()));
 	}
 
 	/**
@@ -46,30 +76,75 @@ public class OtpServiceToRepoImpl implements OtpServiceToRepo {
 	 * @return the optional
 	 */
 	@Override
+	@Timed("otp.repo")
 	public Optional<Otp> save(@NonNull Otp otp) {
 		log.debug("save] - Perform to save OTP");
 		return Optional.ofNullable(dao.saveAndFlush(otp));
 	}
 
+	/**
+	 * Replace otp. The replaced otp are deleted by one statement before the new
+	 * otp with the same emails are inserted.
+	 *
+	 * @param replaced the otp to delete
+	 * @param otps     the otp to save
+	 * @return the saved otp
+	 */
+	@Override
+	@Timed("otp.repo")
+	public List<Otp> replaceAll(@NonNull Collection<Otp> replaced, @NonNull List<Otp> otps) {
+		log.debug("replaceAll] - Perform to replace {} OTP and save {} OTP", replaced.size(), otps.size());
+		if (!replaced.isEmpty()) {
+			dao.deleteInBatch(replaced);
+		}
+		List<Otp> saved = dao.saveAll(otps);
+		dao.flush();
+		return saved;
+	}
+
 	/**
 	 * Delete otp by email.
 	 *
 	 * @param email the email
 	 */
 	@Override
+	@Timed("otp.repo")
 	public void deleteByEmail(@NonNull String email) {
-		log.debug("deleteByEmail] - Perform to delete OTP by email: ", email);
-		dao.deleteOtpByEmailIgnoreCase(email);
+		log.debug("deleteByEmail] - Perform to delete OTP by email: {}", email);
+		dao.deleteOtpByEmail(EmailNormalizer.normalize(email));
+	}
+
+	/**
+	 * Consume otp with the single conditional delete.
+	 *
+	 * @param otp the otp
+	 * @return true, if the otp was consumed by this call
+	 */
+	@Override
+	@Timed("otp.repo")
+	public boolean consume(@NonNull Otp otp) {
+		log.debug("consume] - Perform to consume OTP by email: {}", otp.getEmail());
+		return dao.consume(otp.getId(), otp.getPassword(), new Date()) == 1;
 	}
 
 	/**
-	 * Delete otp before date.
+	 * Delete the chunk of otp before date. The ids of the chunk are selected by
+	 * the index of expired and deleted with one bulk statement in the new
+	 * transaction.
 	 *
-	 * @param date the date
+	 * @param date  the date
+	 * @param limit the max count of otp to delete
+	 * @return the count of deleted otp
 	 */
 	@Override
-	public void deleteOtpBefore(Date date) {
-		dao.deleteByExpiredBefore(date);
+	@Timed("otp.repo")
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public int deleteOtpBefore(Date date, int limit) {
+		List<Long> ids = dao.findExpiredIds(date, PageRequest.of(0, limit));
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		return dao.deleteExpiredByIds(ids, date);
 	}
 
 }
@@ -0,0 +1,251 @@
+package depavlo.repo.serviceimpl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import depavlo.model.Otp;
+import depavlo.service.OtpServiceToRepo;
+import depavlo.store.NearCache;
+import depavlo.store.SharedStore;
+import depavlo.util.EmailNormalizer;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class SharedOtpServiceToRepo that keeps OTP in the store shared by all
+ * instances of the application. Every OTP expires in the store by itself. The
+ * OTP looked up by email are kept in the near cache that is invalidated by
+ * every instance which changes the OTP. The stale OTP of the near cache can not
+ * be consumed twice, as the OTP is consumed in the shared store only if it is
+ * still the same. It is enabled by the property app.otp.store=shared.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "shared")
+@Slf4j
+@RequiredArgsConstructor
+public class SharedOtpServiceToRepo implements OtpServiceToRepo {
+
+	/** The prefix of the OTP keys. */
+	private static final String KEY_PREFIX = "otp:";
+
+	/** The key of the OTP id sequence. */
+	private static final String SEQUENCE_KEY = "otp-seq";
+
+	/** The channel of the changed OTP keys. */
+	private static final String CHANNEL = "otp";
+
+	/** The separator of the stored OTP fields, it can not be a part of email. */
+	private static final String SEPARATOR = "\n";
+
+	/** The shared store. */
+	private final SharedStore sharedStore;
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** The max count of OTP kept in the near cache. */
+	@Value("${app.store.nearCache.maxSize}")
+	private Long nearCacheMaxSize;
+
+	/** The time to live of the near cache entry. */
+	@Value("${app.store.nearCache.ttlMsec}")
+	private Long nearCacheTtlMsec;
+
+	/** The near cache of OTP by key. */
+	private NearCache<Otp> nearCache;
+
+	/**
+	 * Creates the near cache.
+	 */
+	@PostConstruct
+	private void init() {
+		log.info("init] - Use shared OTP store");
+		nearCache = new NearCache<>(sharedStore, CHANNEL, nearCacheMaxSize, nearCacheTtlMsec, meterRegistry);
+	}
+
+	/**
+	 * Load otp by username.
+	 *
+	 * @param username the username
+	 * @return the optional
+	 */
+	@Override
+	@Timed("otp.repo")
+	public Optional<Otp> loadOtpByUsername(@NonNull String username) {
+		log.debug("loadOtpByUsername] - Perform to load OTP by Email '{}'", username);
+		return nearCache.get(key(username), key -> decode(sharedStore.get(key)));
+	}
+
+	/**
+	 * Load otp by usernames with one call of the shared store. The near cache is
+	 * not used, as the group is rarely looked up twice.
+	 *
+	 * @param usernames the usernames
+	 * @return the found otp
+	 */
+	@Override
+	@Timed("otp.repo")
+	public List<Otp> loadOtpsByUsernames(@NonNull Collection<String> usernames) {
+		log.debug("loadOtpsByUsernames] - Perform to load {} OTP by Email", usernames.size());
+		List<String> keys = usernames.stream()
+				.map(SharedOtpServiceToRepo::key)
+				.distinct()
+				.collect(Collectors.toList());
+		List<Otp> otps = new ArrayList<>();
+		for (String value : sharedStore.getAll(keys)) {
+			Otp otp = decode(value);
+			if (otp != null) {
+				otps.add(otp);
+			}
+		}
+		return otps;
+	}
+
+	/**
+	 * Save otp. The OTP lives in the store until it expires.
+	 *
+	 * @param otp the otp
+	 * @return the optional
+	 */
+	@Override
+	@Timed("otp.repo")
+	public Optional<Otp> save(@NonNull Otp otp) {
+		log.debug("save] - Perform to save OTP");
+		if (otp.getId() == null) {
+			otp.setId(sharedStore.increment(SEQUENCE_KEY));
+		}
+		String key = key(otp.getEmail());
+		long ttl = otp.getExpired().getTime() - System.currentTimeMillis();
+		if (ttl > 0) {
+			sharedStore.set(key, encode(otp), ttl);
+		} else {
+			sharedStore.delete(key);
+		}
+		nearCache.invalidate(key);
+		return Optional.of(otp);
+	}
+
+	/**
+	 * Replace otp. The replaced otp is removed only if it is still stored.
+	 *
+	 * @param replaced the otp to delete
+	 * @param otps     the otp to save
+	 * @return the saved otp
+	 */
+	@Override
+	@Timed("otp.repo")
+	public List<Otp> replaceAll(@NonNull Collection<Otp> replaced, @NonNull List<Otp> otps) {
+		log.debug("replaceAll] - Perform to replace {} OTP and save {} OTP", replaced.size(), otps.size());
+		for (Otp otp : replaced) {
+			String key = key(otp.getEmail());
+			if (sharedStore.deleteIfEquals(key, encode(otp))) {
+				nearCache.invalidate(key);
+			}
+		}
+		otps.forEach(this::save);
+		return otps;
+	}
+
+	/**
+	 * Delete otp by email.
+	 *
+	 * @param email the email
+	 */
+	@Override
+	@Timed("otp.repo")
+	public void deleteByEmail(@NonNull String email) {
+		log.debug("deleteByEmail] - Perform to delete OTP by email: {}", email);
+		String key = key(email);
+		sharedStore.delete(key);
+		nearCache.invalidate(key);
+	}
+
+	/**
+	 * Consume otp. The OTP is removed only if it is still the same in the shared
+	 * store, so only one instance consumes it.
+	 *
+	 * @param otp the otp
+	 * @return true, if the otp was consumed by this call
+	 */
+	@Override
+	@Timed("otp.repo")
+	public boolean consume(@NonNull Otp otp) {
+		log.debug("consume] - Perform to consume OTP by email: {}", otp.getEmail());
+		if (!otp.getExpired().after(new Date())) {
+			return false;
+		}
+		String key = key(otp.getEmail());
+		boolean consumed = sharedStore.deleteIfEquals(key, encode(otp));
+		nearCache.invalidate(key);
+		return consumed;
+	}
+
+	/**
+	 * Delete otp before date. The expired OTP are removed by the shared store
+	 * itself, so nothing is left to delete.
+	 *
+	 * @param date  the date
+	 * @param limit the max count of otp to delete
+	 * @return zero
+	 */
+	@Override
+	public int deleteOtpBefore(Date date, int limit) {
+		return 0;
+	}
+
+	/**
+	 * Makes the store key from email.
+	 *
+	 * @param email the email
+	 * @return the key
+	 */
+	private static String key(String email) {
+		return KEY_PREFIX + EmailNormalizer.normalize(email);
+	}
+
+	/**
+	 * Encodes the otp as the stored value.
+	 *
+	 * @param otp the otp
+	 * @return the value
+	 */
+	private static String encode(Otp otp) {
+		return String.join(SEPARATOR, String.valueOf(otp.getId()), String.valueOf(otp.getExpired().getTime()),
+				otp.getEmail(), otp.getPassword());
+	}
+
+	/**
+	 * Decodes the otp from the stored value.
+	 *
+	 * @param value the value, may be null
+	 * @return the otp or null if the value is null
+	 */
+	private static Otp decode(String value) {
+		if (value == null) {
+			return null;
+		}
+		String[] fields = value.split(SEPARATOR, 4);
+		Otp otp = new Otp();
+		otp.setId(Long.valueOf(fields[0]));
+		otp.setExpired(new Date(Long.parseLong(fields[1])));
+		otp.setEmail(fields[2]);
+		otp.setPassword(fields[3]);
+		return otp;
+	}
+
+}
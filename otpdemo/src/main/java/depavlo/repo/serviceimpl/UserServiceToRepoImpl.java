@@ -1,20 +1,39 @@
 package depavlo.repo.serviceimpl;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import depavlo.model.User;
 import depavlo.repo.UserRepository;
 import depavlo.service.UserServiceToRepo;
+import depavlo.store.NearCache;
+import depavlo.store.SharedStore;
+import depavlo.util.EmailNormalizer;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * The Class UserServiceToRepoImpl.
+ * The Class UserServiceToRepoImpl. The users looked up by email are kept in the
+ * near cache, the instance that changes the user publishes its email through
+ * the shared store, so the user is dropped from the cache of every instance.
  * 
  * @author Pavlo Degtyaryev
  */
@@ -24,19 +43,93 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class UserServiceToRepoImpl implements UserServiceToRepo {
 
+	/** The channel of the changed user emails. */
+	private static final String CHANNEL = "users";
+
 	/** The UserRepository dao. */
 	private final UserRepository dao;
 
+	/** The entity manager. */
+	private final EntityManager entityManager;
+
+	/** The shared store. */
+	private final SharedStore sharedStore;
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** The max count of cached users. */
+	@Value("${app.user.cacheMaxSize}")
+	private Long cacheMaxSize;
+
+	/** The time in milliseconds for which the user lookup is cached. */
+	@Value("${app.user.cacheTtlMsec}")
+	private Long cacheTtlMsec;
+
+	/**
+	 * The near-cache of users by lower case email. The absence is cached for
+	 * emails of not existing users. The cached users are detached copies that are
+	 * never handed out, every lookup gets its own copy.
+	 */
+	private NearCache<User> userCache;
+
+	/**
+	 * Builds the users cache.
+	 */
+	@PostConstruct
+	private void init() {
+		log.info("init] - Create Users cache with max size {} and TTL {} msec", cacheMaxSize, cacheTtlMsec);
+		userCache = new NearCache<>(sharedStore, CHANNEL, cacheMaxSize, cacheTtlMsec, meterRegistry);
+	}
+
 	/**
-	 * Load user by username.
+	 * Load user by username. The cache hit does not start a transaction and does
+	 * not take a connection from the pool. The returned user is the copy, so its
+	 * changes do not reach the cache.
 	 *
 	 * @param username the username
 	 * @return the optional
 	 */
 	@Override
+	@Timed("user.repo")
+	@Transactional(propagation = Propagation.SUPPORTS)
 	public Optional<User> loadUserByUsername(@NonNull String username) {
 		log.debug("loadUserByUsername] - Perform to load User by Email '{}'", username);
-		return dao.findByEmailIgnoreCase(username);
+		return userCache.get(cacheKey(username),
+				email -> dao.findByEmail(email).map(UserServiceToRepoImpl::copy).orElse(null))
+				.map(UserServiceToRepoImpl::copy);
+	}
+
+	/**
+	 * Checks if the user exists.
+	 *
+	 * @param username the username
+	 * @return true, if the user exists
+	 */
+	@Override
+	@Timed("user.repo")
+	@Transactional(propagation = Propagation.SUPPORTS)
+	public boolean isUserExists(@NonNull String username) {
+		return loadUserByUsername(username).isPresent();
+	}
+
+	/**
+	 * Load users by usernames.
+	 *
+	 * @param usernames the usernames
+	 * @return the found users
+	 */
+	@Override
+	@Timed("user.repo")
+	@Transactional(readOnly = true)
+	public List<User> loadUsersByUsernames(@NonNull Collection<String> usernames) {
+		log.debug("loadUsersByUsernames] - Perform to load {} Users by Email", usernames.size());
+		if (usernames.isEmpty()) {
+			return List.of();
+		}
+		return dao.findByEmailIn(usernames.stream()
+				.map(EmailNormalizer::normalize)
+				.collect(Collectors.toSet()));
 	}
 
 	/**
@@ -46,6 +139,7 @@ public class UserServiceToRepoImpl implements UserServiceToRepo {
 	 * @return the user by id
 	 */
 	@Override
+	@Timed("user.repo")
 	public Optional<User> getUserById(@NonNull Long userId) {
 		log.debug("getUserById] - Perform to load User by Id: {}", userId);
 		return dao.findById(userId);
@@ -57,8 +151,10 @@ public class UserServiceToRepoImpl implements UserServiceToRepo {
 	 * @param userId the user id
 	 */
 	@Override
+	@Timed("user.repo")
 	public void deleteUserById(@NonNull Long userId) {
 		log.debug("deleteUserById] - Perform to delete User by Id: {}", userId);
+		dao.findById(userId).ifPresent(user -> invalidate(user.getEmail()));
 		dao.deleteById(userId);
 	}
 
@@ -69,20 +165,111 @@ public class UserServiceToRepoImpl implements UserServiceToRepo {
 	 * @return the optional
 	 */
 	@Override
+	@Timed("user.repo")
 	public Optional<User> saveUser(@NonNull User user) {
 		log.debug("saveUser] - Perform to save User: {}", user);
-		return Optional.of(dao.save(user));
+		User saved = dao.save(user);
+		invalidate(saved.getEmail());
+		return Optional.of(saved);
 	}
 
 	/**
-	 * Gets the all users.
+	 * Save users. The users are flushed before the commit, so the constraint
+	 * violation is thrown here and the transaction is rolled back.
 	 *
-	 * @return the all users
+	 * @param users the users
+	 * @return the saved users
 	 */
 	@Override
-	public List<User> getAllUsers() {
-		log.debug("getAllUsers] - Get all Users");
-		return dao.findAll();
+	@Timed("user.repo")
+	public List<User> saveUsers(@NonNull List<User> users) {
+		log.debug("saveUsers] - Perform to save {} Users", users.size());
+		List<User> saved = dao.saveAll(users);
+		dao.flush();
+		saved.forEach(user -> invalidate(user.getEmail()));
+		return saved;
+	}
+
+	/**
+	 * Gets the page of users after the id.
+	 *
+	 * @param afterId the id after which the page starts
+	 * @param size    the max count of users in the page
+	 * @return the users of the page
+	 */
+	@Override
+	@Timed("user.repo")
+	@Transactional(readOnly = true)
+	public List<User> getUsersAfter(@NonNull Long afterId, int size) {
+		log.debug("getUsersAfter] - Get {} Users after Id: {}", size, afterId);
+		return dao.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, size));
+	}
+
+	/**
+	 * Performs the action for each user. Every user is detached after the action,
+	 * so the persistence context does not grow with the table.
+	 *
+	 * @param action the action
+	 */
+	@Override
+	@Timed("user.repo")
+	@Transactional(readOnly = true)
+	public void forEachUser(@NonNull Consumer<User> action) {
+		log.debug("forEachUser] - Stream all Users");
+		try (Stream<User> users = dao.streamAllOrderById()) {
+			users.forEach(user -> {
+				action.accept(user);
+				entityManager.detach(user);
+			});
+		}
+	}
+
+	/**
+	 * Removes the user from the cache of every instance. If a transaction is
+	 * active the user is removed once again after commit, so a concurrent lookup
+	 * of any instance can not put back the state that was read before the commit.
+	 *
+	 * @param email the user email
+	 */
+	private void invalidate(String email) {
+		String key = cacheKey(email);
+		userCache.invalidate(key);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					userCache.invalidate(key);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Copies the user. The copy is not attached to the persistence context.
+	 *
+	 * @param user the user
+	 * @return the copy
+	 */
+	private static User copy(User user) {
+		User copy = new User();
+		copy.setId(user.getId());
+		copy.setEmail(user.getEmail());
+		copy.setName(user.getName());
+		copy.setLastName(user.getLastName());
+		copy.setBirthDay(user.getBirthDay());
+		copy.setMaritalStatus(user.getMaritalStatus());
+		return copy;
+	}
+
+	/**
+	 * Makes the cache key from email. It is the normalized email that is also the
+	 * lookup key of the database.
+	 *
+	 * @param email the email
+	 * @return the cache key
+	 */
+	private static String cacheKey(String email) {
+		return EmailNormalizer.normalize(email);
 	}
 
 }
@@ -0,0 +1,143 @@
+package depavlo.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import lombok.NonNull;
+
+/**
+ * HmacOtpPasswordEncoder class used to hash one-time passwords with a keyed
+ * HMAC-SHA256. The one-time password is a random UUID that lives only a few
+ * minutes, so a slow key derivation function adds cost without adding
+ * protection. The secret key (pepper) is kept out of the database, so the
+ * stored hashes are useless without it. Every hash is calculated by the clone
+ * of the initialized prototype Mac, so neither the key schedule is repeated
+ * nor a Mac is kept per thread, which would be never reused by virtual threads.
+ *
+ * @author Pavlo Degtyaryev
+ */
+public class HmacOtpPasswordEncoder implements PasswordEncoder {
+
+	/** The MAC algorithm. */
+	private static final String ALGORITHM = "HmacSHA256";
+
+	/** The secret key. */
+	private final SecretKeySpec key;
+
+	/**
+	 * The initialized Mac that is only cloned. It is never updated, so it is
+	 * cloned without a lock.
+	 */
+	private final Mac prototype;
+
+	/** Whether the provider of the Mac supports the clone. */
+	private final boolean cloneable;
+
+	/**
+	 * Instantiates a new HMAC OTP password encoder.
+	 *
+	 * @param secret the secret key bytes
+	 */
+	public HmacOtpPasswordEncoder(@NonNull byte[] secret) {
+		this.key = new SecretKeySpec(secret, ALGORITHM);
+		this.prototype = mac(); // fail fast on a bad key
+		this.cloneable = isCloneable(prototype);
+	}
+
+	/**
+	 * Encode password.
+	 *
+	 * @param rawPassword the raw password
+	 * @return the Base64 encoded HMAC of the password
+	 */
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return Base64.getEncoder().encodeToString(hmac(rawPassword));
+	}
+
+	/**
+	 * Matches the raw password to the encoded one in constant time.
+	 *
+	 * @param rawPassword     the raw password
+	 * @param encodedPassword the encoded password
+	 * @return true, if successful
+	 */
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		if (rawPassword == null || encodedPassword == null) {
+			return false;
+		}
+		byte[] expected;
+		try {
+			expected = Base64.getDecoder().decode(encodedPassword);
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+		return MessageDigest.isEqual(expected, hmac(rawPassword));
+	}
+
+	/**
+	 * Calculates the HMAC of the password.
+	 *
+	 * @param rawPassword the raw password
+	 * @return the HMAC bytes
+	 */
+	private byte[] hmac(CharSequence rawPassword) {
+		return newMac().doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Gets the initialized Mac for one hash, as Mac is not thread safe.
+	 *
+	 * @return the mac
+	 */
+	private Mac newMac() {
+		if (!cloneable) {
+			return mac();
+		}
+		try {
+			return (Mac) prototype.clone();
+		} catch (CloneNotSupportedException e) {
+			return mac();
+		}
+	}
+
+	/**
+	 * Checks if the Mac can be cloned.
+	 *
+	 * @param mac the mac
+	 * @return true, if cloneable
+	 */
+	private static boolean isCloneable(Mac mac) {
+		try {
+			mac.clone();
+			return true;
+		} catch (CloneNotSupportedException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Creates the initialized Mac.
+	 *
+	 * @return the mac
+	 */
+	private Mac mac() {
+		try {
+			Mac mac = Mac.getInstance(ALGORITHM);
+			mac.init(key);
+			return mac;
+		} catch (NoSuchAlgorithmException | InvalidKeyException e) {
+			throw new IllegalStateException("Unable to initialize " + ALGORITHM, e);
+		}
+	}
+
+}
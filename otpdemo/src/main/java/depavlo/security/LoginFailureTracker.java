@@ -0,0 +1,150 @@
+package depavlo.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import depavlo.util.EmailNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class LoginFailureTracker that counts the failed logins of each email. The
+ * counter decays, one failure is forgotten every decay interval, so the email
+ * is locked after the burst of failures and is unlocked again by itself. The
+ * counters are kept in the bounded cache, each counter is one number updated by
+ * compare and set.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoginFailureTracker {
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** Whether the failures lock the email. */
+	@Value("${app.auth.lockout.enabled}")
+	private Boolean enabled;
+
+	/** The count of failures that locks the email. */
+	@Value("${app.auth.lockout.maxFailures}")
+	private Integer maxFailures;
+
+	/** The time in milliseconds during which one failure is forgotten. */
+	@Value("${app.auth.lockout.decayMsec}")
+	private Long decayMsec;
+
+	/** The max count of tracked emails. */
+	@Value("${app.auth.lockout.maxKeys}")
+	private Long maxKeys;
+
+	/** The decay interval in nanoseconds. */
+	private long interval;
+
+	/** The failure counters by email. */
+	private Cache<String, FailureCounter> counters;
+
+	/**
+	 * Builds the cache and registers its metrics.
+	 */
+	@PostConstruct
+	private void init() {
+		log.info("init] - Create login failure tracker, enabled: {}, lock after {} failures, max keys: {}", enabled,
+				maxFailures, maxKeys);
+		interval = TimeUnit.MILLISECONDS.toNanos(decayMsec);
+		// the counter that is not touched until it decays to zero is the same as no counter
+		counters = Caffeine.newBuilder()
+				.maximumSize(maxKeys)
+				.expireAfterAccess(maxFailures * interval, TimeUnit.NANOSECONDS)
+				.build();
+		meterRegistry.gauge("otp.auth.tracked", counters, Cache::estimatedSize);
+	}
+
+	/**
+	 * Checks if the email is locked by the recent failures.
+	 *
+	 * @param email the email
+	 * @return true, if locked
+	 */
+	public boolean isLocked(@NonNull String email) {
+		if (!enabled) {
+			return false;
+		}
+		FailureCounter counter = counters.getIfPresent(EmailNormalizer.normalize(email));
+		return counter != null && counter.count(System.nanoTime(), interval) >= maxFailures;
+	}
+
+	/**
+	 * Records the failed login of the email.
+	 *
+	 * @param email the email
+	 */
+	public void recordFailure(@NonNull String email) {
+		long now = System.nanoTime();
+		counters.get(EmailNormalizer.normalize(email), k -> new FailureCounter(now)).add(now, interval);
+		meterRegistry.counter("otp.auth.failed").increment();
+	}
+
+	/**
+	 * Forgets the failures of the email after the successful login.
+	 *
+	 * @param email the email
+	 */
+	public void reset(@NonNull String email) {
+		counters.invalidate(EmailNormalizer.normalize(email));
+	}
+
+	/**
+	 * The Class FailureCounter that keeps the moment when the count of failures
+	 * decays to zero. Each failure moves the moment by one decay interval.
+	 */
+	private static class FailureCounter {
+
+		/** The moment in nanoseconds when the count is zero. */
+		private final AtomicLong zeroAt;
+
+		/**
+		 * Instantiates a new failure counter.
+		 *
+		 * @param now the current time in nanoseconds
+		 */
+		FailureCounter(long now) {
+			zeroAt = new AtomicLong(now);
+		}
+
+		/**
+		 * Adds the failure.
+		 *
+		 * @param now      the current time in nanoseconds
+		 * @param interval the decay interval in nanoseconds
+		 */
+		void add(long now, long interval) {
+			zeroAt.accumulateAndGet(now, (current, time) -> (current - time < 0 ? time : current) + interval);
+		}
+
+		/**
+		 * Counts the failures that are not forgotten yet.
+		 *
+		 * @param now      the current time in nanoseconds
+		 * @param interval the decay interval in nanoseconds
+		 * @return the count
+		 */
+		long count(long now, long interval) {
+			long left = zeroAt.get() - now;
+			return left <= 0 ? 0 : (left + interval - 1) / interval;
+		}
+	}
+
+}
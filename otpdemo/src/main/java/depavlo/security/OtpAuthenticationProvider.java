@@ -0,0 +1,125 @@
+package depavlo.security;
+
+import java.util.Date;
+import java.util.Optional;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import depavlo.model.Otp;
+import depavlo.model.User;
+import depavlo.service.OtpServiceToRepo;
+import depavlo.service.UserServiceToRepo;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class OtpAuthenticationProvider that authenticates the user by the OTP and
+ * consumes the OTP in the same step. The user is taken from the cache, the OTP
+ * is read once and removed by the single conditional delete, so the successful
+ * login costs one write and the OTP can not be used twice by concurrent logins.
+ * The email that has too many recent failures is rejected before the OTP is
+ * read and hashed.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OtpAuthenticationProvider implements AuthenticationProvider {
+
+	/** The message of every failed authentication. */
+	private static final String BAD_CREDENTIALS = "Bad credentials";
+
+	/** The user service to repo. */
+	private final UserServiceToRepo userServiceToRepo;
+
+	/** The otp service to repo. */
+	private final OtpServiceToRepo otpServiceToRepo;
+
+	/** The password encoder. */
+	private final PasswordEncoder passwordEncoder;
+
+	/** The login failure tracker. */
+	private final LoginFailureTracker loginFailureTracker;
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Authenticate the user by OTP and consume it.
+	 *
+	 * @param authentication the authentication request
+	 * @return the authentication with the user principal
+	 * @throws AuthenticationException if the OTP is wrong, expired or already used,
+	 *                                 or the email is locked by recent failures
+	 */
+	@Override
+	@Timed("otp.auth")
+	public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+		String email = authentication.getName();
+		if (loginFailureTracker.isLocked(email)) {
+			log.debug("authenticate] - '{}' is locked by recent failures", email);
+			meterRegistry.counter("otp.auth.locked").increment();
+			throw new LockedException("Too many failed logins");
+		}
+		Object credentials = authentication.getCredentials();
+		if (credentials == null) {
+			throw failure(email);
+		}
+
+		Optional<Otp> otp = otpServiceToRepo.loadOtpByUsername(email);
+		if (otp.isEmpty() || otp.get().getExpired().before(new Date())
+				|| !passwordEncoder.matches(credentials.toString(), otp.get().getPassword())) {
+			log.debug("authenticate] - OTP for '{}' is missing, expired or does not match", email);
+			throw failure(email);
+		}
+
+		Optional<User> user = userServiceToRepo.loadUserByUsername(email);
+		if (user.isEmpty()) {
+			log.debug("authenticate] - User '{}' is not found", email);
+			throw failure(email);
+		}
+
+		if (!otpServiceToRepo.consume(otp.get())) {
+			log.debug("authenticate] - OTP for '{}' was already used", email);
+			throw failure(email);
+		}
+		meterRegistry.counter("otp.consumed").increment();
+		loginFailureTracker.reset(email);
+
+		UserPrincipal principal = new UserPrincipal(user.get().getEmail(), "");
+		return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+	}
+
+	/**
+	 * Records the failed login of the email.
+	 *
+	 * @param email the email
+	 * @return the bad credentials exception to throw
+	 */
+	private BadCredentialsException failure(String email) {
+		loginFailureTracker.recordFailure(email);
+		return new BadCredentialsException(BAD_CREDENTIALS);
+	}
+
+	/**
+	 * Supports the user name and password authentication.
+	 *
+	 * @param authentication the authentication class
+	 * @return true, if supported
+	 */
+	@Override
+	public boolean supports(Class<?> authentication) {
+		return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+	}
+
+}
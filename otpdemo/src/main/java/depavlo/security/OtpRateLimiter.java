@@ -0,0 +1,210 @@
+package depavlo.security;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import depavlo.util.EmailNormalizer;
+import depavlo.util.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class OtpRateLimiter that limits the OTP requests and the logins of each
+ * email and of each client IP address. Each key has its own token bucket, the
+ * buckets are kept in the bounded caches, so the flood of different emails can
+ * not exhaust the memory. The limit is checked before the request reaches the
+ * user service, so the rejected request does not touch the database.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OtpRateLimiter {
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** Whether the limits are checked. */
+	@Value("${app.otp.rateLimit.enabled}")
+	private Boolean enabled;
+
+	/** The max count of keys tracked by each limit. */
+	@Value("${app.otp.rateLimit.maxKeys}")
+	private Long maxKeys;
+
+	/** The OTP requests of one email allowed at once. */
+	@Value("${app.otp.rateLimit.request.emailCapacity}")
+	private Integer requestEmailCapacity;
+
+	/** The OTP requests of one email refilled per minute. */
+	@Value("${app.otp.rateLimit.request.emailPerMinute}")
+	private Integer requestEmailPerMinute;
+
+	/** The OTP requests of one IP address allowed at once. */
+	@Value("${app.otp.rateLimit.request.ipCapacity}")
+	private Integer requestIpCapacity;
+
+	/** The OTP requests of one IP address refilled per minute. */
+	@Value("${app.otp.rateLimit.request.ipPerMinute}")
+	private Integer requestIpPerMinute;
+
+	/** The logins of one email allowed at once. */
+	@Value("${app.otp.rateLimit.login.emailCapacity}")
+	private Integer loginEmailCapacity;
+
+	/** The logins of one email refilled per minute. */
+	@Value("${app.otp.rateLimit.login.emailPerMinute}")
+	private Integer loginEmailPerMinute;
+
+	/** The logins of one IP address allowed at once. */
+	@Value("${app.otp.rateLimit.login.ipCapacity}")
+	private Integer loginIpCapacity;
+
+	/** The logins of one IP address refilled per minute. */
+	@Value("${app.otp.rateLimit.login.ipPerMinute}")
+	private Integer loginIpPerMinute;
+
+	/** The limit of OTP requests by email. */
+	private Limit requestByEmail;
+
+	/** The limit of OTP requests by IP address. */
+	private Limit requestByIp;
+
+	/** The limit of logins by email. */
+	private Limit loginByEmail;
+
+	/** The limit of logins by IP address. */
+	private Limit loginByIp;
+
+	/**
+	 * Builds the limits and registers their metrics.
+	 */
+	@PostConstruct
+	private void init() {
+		log.info("init] - Create OTP rate limiter, enabled: {}, max keys: {}", enabled, maxKeys);
+		requestByEmail = new Limit("request", "email", requestEmailCapacity, requestEmailPerMinute);
+		requestByIp = new Limit("request", "ip", requestIpCapacity, requestIpPerMinute);
+		loginByEmail = new Limit("login", "email", loginEmailCapacity, loginEmailPerMinute);
+		loginByIp = new Limit("login", "ip", loginIpCapacity, loginIpPerMinute);
+	}
+
+	/**
+	 * Checks the limits of the OTP request.
+	 *
+	 * @param email    the email
+	 * @param clientIp the client IP address
+	 * @throws RateLimitExceededException if the email or the IP address is over
+	 *                                    the limit
+	 */
+	public void checkOtpRequest(@NonNull String email, @NonNull String clientIp) {
+		check(requestByIp, clientIp);
+		check(requestByEmail, EmailNormalizer.normalize(email));
+	}
+
+	/**
+	 * Checks the limits of the login.
+	 *
+	 * @param email    the email
+	 * @param clientIp the client IP address
+	 * @throws RateLimitExceededException if the email or the IP address is over
+	 *                                    the limit
+	 */
+	public void checkLogin(@NonNull String email, @NonNull String clientIp) {
+		check(loginByIp, clientIp);
+		check(loginByEmail, EmailNormalizer.normalize(email));
+	}
+
+	/**
+	 * Takes the token of the key.
+	 *
+	 * @param limit the limit
+	 * @param key   the key
+	 * @throws RateLimitExceededException if the key is over the limit
+	 */
+	private void check(Limit limit, String key) {
+		if (!enabled) {
+			return;
+		}
+		long wait = limit.tryAcquire(key);
+		if (wait > 0) {
+			log.debug("check] - {} of '{}' is over the limit", limit.operation, key);
+			limit.rejected.increment();
+			// the seconds are rounded up, so the client does not retry too early
+			long retryAfter = TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1);
+			throw new RateLimitExceededException(retryAfter);
+		}
+		limit.allowed.increment();
+	}
+
+	/**
+	 * The Class Limit of one operation by one kind of key.
+	 */
+	private class Limit {
+
+		/** The operation. */
+		private final String operation;
+
+		/** The max count of tokens of the key. */
+		private final long capacity;
+
+		/** The time in nanoseconds to refill one token. */
+		private final long interval;
+
+		/** The buckets by key. */
+		private final Cache<String, TokenBucket> buckets;
+
+		/** The counter of allowed requests. */
+		private final Counter allowed;
+
+		/** The counter of rejected requests. */
+		private final Counter rejected;
+
+		/**
+		 * Instantiates a new limit.
+		 *
+		 * @param operation the operation
+		 * @param key       the kind of key
+		 * @param capacity  the max count of tokens of the key
+		 * @param perMinute the count of tokens refilled per minute
+		 */
+		Limit(String operation, String key, int capacity, int perMinute) {
+			this.operation = operation;
+			this.capacity = capacity;
+			this.interval = TimeUnit.MINUTES.toNanos(1) / perMinute;
+			// the bucket that is not touched until it is full is the same as the new one
+			this.buckets = Caffeine.newBuilder()
+					.maximumSize(maxKeys)
+					.expireAfterAccess(capacity * interval, TimeUnit.NANOSECONDS)
+					.build();
+			Tags tags = Tags.of("operation", operation, "key", key);
+			this.allowed = meterRegistry.counter("otp.ratelimit", tags.and("decision", "allowed"));
+			this.rejected = meterRegistry.counter("otp.ratelimit", tags.and("decision", "rejected"));
+			meterRegistry.gauge("otp.ratelimit.keys", tags, buckets, Cache::estimatedSize);
+		}
+
+		/**
+		 * Tries to take the token of the key.
+		 *
+		 * @param key the key
+		 * @return zero if the token is taken, otherwise the time in nanoseconds until
+		 *         the next token
+		 */
+		long tryAcquire(String key) {
+			long now = System.nanoTime();
+			return buckets.get(key, k -> new TokenBucket(now)).tryAcquire(now, interval, capacity);
+		}
+	}
+
+}
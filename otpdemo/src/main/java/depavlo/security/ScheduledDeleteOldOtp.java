@@ -1,17 +1,24 @@
 package depavlo.security;
 
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import depavlo.service.OtpServiceToRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * The Class ScheduledDeleteOldOtp that periodically deletes old OPT.
- * 
+ * The Class ScheduledDeleteOldOtp that periodically deletes old OPT. The old OTP
+ * are deleted by chunks, each in its own transaction, with the pause between
+ * chunks. The run stops when it exceeds the max run time and the rest of old OTP
+ * is left for the next run.
+ *
  * @author Pavlo Degtyaryev
  */
 @Slf4j
@@ -22,6 +29,21 @@ public class ScheduledDeleteOldOtp {
 	/** The otp service to repo. */
 	private final OtpServiceToRepo otpServiceToRepo;
 
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** The max count of OTP deleted in one transaction. */
+	@Value("${app.otp.purge.chunkSize}")
+	private Integer chunkSize;
+
+	/** The pause between chunks in milliseconds. */
+	@Value("${app.otp.purge.pauseMsec}")
+	private Long pauseMsec;
+
+	/** The max time of one run in milliseconds. */
+	@Value("${app.otp.purge.maxRunMsec}")
+	private Long maxRunMsec;
+
 	/**
 	 * Delete old otp by Cron.
 	 */
@@ -29,6 +51,44 @@ public class ScheduledDeleteOldOtp {
 	public void deleteOldOtp() {
 		Date date = new Date();
 		log.debug("deleteOldOtp] - perform delete OTP that has expired on Date: {}", date);
-		otpServiceToRepo.deleteOtpBefore(date);
+
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(maxRunMsec);
+		long count = 0;
+		int chunk;
+		do {
+			chunk = otpServiceToRepo.deleteOtpBefore(date, chunkSize);
+			count += chunk;
+			if (chunk < chunkSize) {
+				break;
+			}
+			if (System.nanoTime() - deadline >= 0) {
+				log.info("deleteOldOtp] - Run is too long, {} OTP deleted, the rest is left for the next run", count);
+				meterRegistry.counter("otp.purge.incomplete").increment();
+				break;
+			}
+		} while (pause());
+
+		meterRegistry.counter("otp.expired").increment(count);
+		meterRegistry.summary("otp.purge.rows").record(count);
+		Timer.builder("otp.purge").register(meterRegistry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		if (count > 0) {
+			log.debug("deleteOldOtp] - {} OTP deleted", count);
+		}
+	}
+
+	/**
+	 * Pauses between chunks, so the purge does not hold the database.
+	 *
+	 * @return true, if the purge may continue
+	 */
+	private boolean pause() {
+		try {
+			Thread.sleep(pauseMsec);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
 	}
 }
@@ -0,0 +1,85 @@
+package depavlo.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+
+/**
+ * TimedPasswordEncoder class that measures the cost of hashing and matching of
+ * passwords by the wrapped encoder. The timer "password.hash" is tagged with
+ * the algorithm and the operation.
+ *
+ * @author Pavlo Degtyaryev
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+	/** The wrapped encoder. */
+	private final PasswordEncoder delegate;
+
+	/** The algorithm name. */
+	private final String algorithm;
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * Instantiates a new timed password encoder.
+	 *
+	 * @param delegate      the wrapped encoder
+	 * @param algorithm     the algorithm name
+	 * @param meterRegistry the meter registry
+	 */
+	public TimedPasswordEncoder(@NonNull PasswordEncoder delegate, @NonNull String algorithm,
+			@NonNull MeterRegistry meterRegistry) {
+		this.delegate = delegate;
+		this.algorithm = algorithm;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Encode password.
+	 *
+	 * @param rawPassword the raw password
+	 * @return the encoded password
+	 */
+	@Override
+	public String encode(CharSequence rawPassword) {
+		return timer("encode").record(() -> delegate.encode(rawPassword));
+	}
+
+	/**
+	 * Matches the raw password to the encoded one.
+	 *
+	 * @param rawPassword     the raw password
+	 * @param encodedPassword the encoded password
+	 * @return true, if successful
+	 */
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		return timer("matches").record(() -> delegate.matches(rawPassword, encodedPassword));
+	}
+
+	/**
+	 * Checks if the password should be encoded again.
+	 *
+	 * @param encodedPassword the encoded password
+	 * @return true, if successful
+	 */
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+	/**
+	 * Gets the timer of the operation.
+	 *
+	 * @param operation the operation
+	 * @return the timer
+	 */
+	private Timer timer(String operation) {
+		return meterRegistry.timer("password.hash", "algorithm", algorithm, "operation", operation);
+	}
+
+}
@@ -0,0 +1,51 @@
+package depavlo.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The Class TokenBucket that is the lock-free token bucket of one key. Instead
+ * of the count of tokens and the time of the last refill the bucket keeps the
+ * single moment when it becomes full again, so the token is taken by one
+ * compare and set and the concurrent requests of one key never block each
+ * other.
+ *
+ * @author Pavlo Degtyaryev
+ */
+class TokenBucket {
+
+	/** The moment in nanoseconds when the bucket is full again. */
+	private final AtomicLong fullAt;
+
+	/**
+	 * Instantiates a new full token bucket.
+	 *
+	 * @param now the current time in nanoseconds
+	 */
+	TokenBucket(long now) {
+		fullAt = new AtomicLong(now);
+	}
+
+	/**
+	 * Tries to take the token.
+	 *
+	 * @param now      the current time in nanoseconds
+	 * @param interval the time in nanoseconds to refill one token
+	 * @param capacity the max count of tokens
+	 * @return zero if the token is taken, otherwise the time in nanoseconds until
+	 *         the next token
+	 */
+	long tryAcquire(long now, long interval, long capacity) {
+		while (true) {
+			long current = fullAt.get();
+			long next = (current - now < 0 ? now : current) + interval;
+			long wait = next - now - capacity * interval;
+			if (wait > 0) {
+				return wait;
+			}
+			if (fullAt.compareAndSet(current, next)) {
+				return 0;
+			}
+		}
+	}
+
+}
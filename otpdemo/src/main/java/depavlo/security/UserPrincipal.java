@@ -2,6 +2,7 @@ package depavlo.security;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -24,6 +25,9 @@ public class UserPrincipal implements UserDetails {
 	/** The user password. */
 	private String password;
 
+	/** The user authorities. */
+	private final List<GrantedAuthority> authorities;
+
 	/**
 	 * Instantiates a new user principal.
 	 *
@@ -33,6 +37,22 @@ public class UserPrincipal implements UserDetails {
 	public UserPrincipal(@NonNull String username, String password) {
 		this.username = username;
 		this.password = password;
+		this.authorities = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+	}
+
+	/**
+	 * Instantiates a new user principal with given authorities.
+	 *
+	 * @param username    the user name
+	 * @param password    the password
+	 * @param authorities the names of authorities
+	 */
+	public UserPrincipal(@NonNull String username, String password, @NonNull Collection<String> authorities) {
+		this.username = username;
+		this.password = password;
+		this.authorities = authorities.stream()
+				.map(SimpleGrantedAuthority::new)
+				.collect(Collectors.toUnmodifiableList());
 	}
 
 	/**
@@ -42,7 +62,7 @@ public class UserPrincipal implements UserDetails {
 	 */
 	@Override
 	public Collection<? extends GrantedAuthority> getAuthorities() {
-		return List.of(new SimpleGrantedAuthority("ROLE_USER"));
+		return authorities;
 	}
 
 	/**
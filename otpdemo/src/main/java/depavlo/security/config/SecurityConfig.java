@@ -1,23 +1,19 @@
 package depavlo.security.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
-import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import depavlo.security.OtpAuthenticationProvider;
 import depavlo.security.jwt.JwtAuthenticationFilter;
-import depavlo.service.UserService;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -30,27 +26,9 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class SecurityConfig {
 
-	/** The user service. */
+	/** The OTP authentication provider. */
 	@Autowired
-	private UserService userService;
-
-	/** The password encoder. */
-	@Autowired
-	private PasswordEncoder passwordEncoder;
-
-	/**
-	 * Authentication provider.
-	 *
-	 * @return the authentication provider
-	 */
-	@Bean
-	public AuthenticationProvider authenticationProvider() {
-		log.info("authenticationProvider] - Create AuthenticationProvider");
-		DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
-		provider.setUserDetailsService(userService);
-		provider.setPasswordEncoder(passwordEncoder);
-		return provider;
-	}
+	private OtpAuthenticationProvider otpAuthenticationProvider;
 
 	/**
 	 * Configure global.
@@ -60,7 +38,8 @@ public class SecurityConfig {
 	 */
 	@Autowired
 	public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
-		auth.userDetailsService(userService).passwordEncoder(passwordEncoder);
+		log.info("configureGlobal] - Use OtpAuthenticationProvider");
+		auth.authenticationProvider(otpAuthenticationProvider);
 	}
 
 	/**
@@ -90,6 +69,8 @@ public class SecurityConfig {
 					.disable() // we don't need CSRF because our token is invulnerable
 					.authorizeRequests()
 
+					.antMatchers(HttpMethod.POST, "/api/v1/auth/request-otp/batch").authenticated()
+					.antMatchers(HttpMethod.POST, "/api/v1/auth/logout").authenticated()
 					.antMatchers(HttpMethod.POST, "/api/v1/auth" + "/**").permitAll()
 
 					.anyRequest().authenticated()
@@ -114,13 +95,9 @@ public class SecurityConfig {
 		@Autowired
 		private JwtAuthenticationFilter jwtAuthenticationFilter;
 
-		/** The user service. */
-		@Autowired
-		private UserService userService;
-
-		/** The password encoder. */
+		/** The OTP authentication provider. */
 		@Autowired
-		PasswordEncoder passwordEncoder;
+		private OtpAuthenticationProvider otpAuthenticationProvider;
 
 		/**
 		 * Configure AuthenticationManagerBuilder.
@@ -130,9 +107,7 @@ public class SecurityConfig {
 		 */
 		@Override
 		public void configure(AuthenticationManagerBuilder authenticationManagerBuilder) throws Exception {
-			authenticationManagerBuilder
-					.userDetailsService(userService)
-					.passwordEncoder(passwordEncoder);
+			authenticationManagerBuilder.authenticationProvider(otpAuthenticationProvider);
 		}
 
 		/**
@@ -1,5 +1,8 @@
 package depavlo.security.config;
 
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -7,8 +10,14 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import depavlo.security.HmacOtpPasswordEncoder;
+import depavlo.security.TimedPasswordEncoder;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * The Class WebSecurityConfig.
  * 
@@ -18,6 +27,18 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @EnableWebSecurity
 public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 
+	/** The id of the encoder used to hash new one-time passwords. */
+	@Value("${app.otp.hashAlgorithm}")
+	private String otpHashAlgorithm;
+
+	/** The Base64 encoded secret key of the HMAC one-time password hash. */
+	@Value("${app.otp.hashSecret}")
+	private String otpHashSecret;
+
+	/** The BCrypt strength, if BCrypt is used. */
+	@Value("${app.otp.bcryptStrength}")
+	private Integer bcryptStrength;
+
 	/**
 	 * Authentication manager bean.
 	 *
@@ -31,14 +52,26 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 	}
 
 	/**
-	 * Password encoder.
+	 * Password encoder. The only passwords of the application are one-time
+	 * passwords, so new hashes are made by the encoder selected with
+	 * app.otp.hashAlgorithm and prefixed with its id. Hashes without a prefix were
+	 * made before and are matched with BCrypt. Every encoder is timed.
 	 *
+	 * @param meterRegistry the meter registry
 	 * @return the password encoder
 	 */
 	@Bean
-	public PasswordEncoder passwordEncoder() {
+	public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
 //		return new CustomPasswordEncoder();
-		return new BCryptPasswordEncoder(10);
+		PasswordEncoder bcrypt = new TimedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength), "bcrypt",
+				meterRegistry);
+		PasswordEncoder hmac = new TimedPasswordEncoder(
+				new HmacOtpPasswordEncoder(TextCodec.BASE64.decode(otpHashSecret)), "hmac-sha256", meterRegistry);
+		DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(otpHashAlgorithm, Map.of(
+				"hmac-sha256", hmac,
+				"bcrypt", bcrypt));
+		encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+		return encoder;
 	}
 
 	/**
@@ -2,13 +2,14 @@ package depavlo.security.jwt;
 
 import java.io.IOException;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.security.authentication.DisabledException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,9 +18,11 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import depavlo.security.UserPrincipal;
 import depavlo.service.UserService;
-import io.jsonwebtoken.ExpiredJwtException;
-import io.jsonwebtoken.SignatureException;
+import depavlo.util.RateLimitedLogger;
+import depavlo.util.exception.SharedStoreException;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -41,6 +44,44 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 	/** The jwt token provider. */
 	private final JwtTokenProvider jwtTokenProvider;
 
+	/** The cache of verified tokens. */
+	private final JwtTokenCache jwtTokenCache;
+
+	/** The store of revoked tokens. */
+	private final TokenRevocationStore tokenRevocationStore;
+
+	/** Build the principal from the token claims instead of loading it. */
+	@Value("${app.auth.statelessPrincipal}")
+	private Boolean statelessPrincipal;
+
+	/** The min interval between the warnings about the rejected tokens. */
+	@Value("${app.auth.failureLogIntervalMsec}")
+	private Long failureLogIntervalMsec;
+
+	/** The logger of the tokens that are not valid. */
+	private RateLimitedLogger invalidTokenLog;
+
+	/** The logger of the tokens of the users that are not found. */
+	private RateLimitedLogger userNotFoundLog;
+
+	/** The logger of the tokens of the disabled users. */
+	private RateLimitedLogger userDisabledLog;
+
+	/** The logger of the tokens whose revocation is unknown. */
+	private RateLimitedLogger revocationUnknownLog;
+
+	/**
+	 * Creates the loggers of the rejected tokens, one per kind of failure, so a
+	 * flood of one kind does not hide the others.
+	 */
+	@PostConstruct
+	private void init() {
+		invalidTokenLog = new RateLimitedLogger(log, failureLogIntervalMsec);
+		userNotFoundLog = new RateLimitedLogger(log, failureLogIntervalMsec);
+		userDisabledLog = new RateLimitedLogger(log, failureLogIntervalMsec);
+		revocationUnknownLog = new RateLimitedLogger(log, failureLogIntervalMsec);
+	}
+
 	/**
 	 * Handle the request authentication information and try to set authentication
 	 * content
@@ -55,47 +96,90 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
 			throws IOException, ServletException {
 		String jwtInCookie = null;
-		String username = null;
+		VerifiedToken verifiedToken = null;
 
 		// if cookie authentication is missing try to get JWT token from HTTP header
 		jwtInCookie = StringUtils.defaultIfBlank(jwtInCookie, jwtTokenProvider.resolveToken(request));
 
 		if (jwtInCookie != null) {
-			try {
-				username = jwtTokenProvider.getUsernameFromToken(jwtInCookie);
-			} catch (IllegalArgumentException e) {
-				log.error("doFilterInternal] - an error occured during getting username from token", e);
-			} catch (ExpiredJwtException e) {
-				log.warn("doFilterInternal] - the token is expired and not valid anymore", e);
-			} catch (SignatureException e) {
-				log.error("doFilterInternal] - Authentication Failed. Username or Password not valid.");
+			// the token that was already verified skips the signature check
+			verifiedToken = jwtTokenCache.get(jwtInCookie);
+			if (verifiedToken == null) {
+				try {
+					verifiedToken = jwtTokenProvider.verifyToken(jwtInCookie);
+					jwtTokenCache.put(jwtInCookie, verifiedToken);
+				} catch (JwtException | IllegalArgumentException e) {
+					invalidTokenLog.warn("doFilterInternal] - The token is not valid: {}", e.getMessage());
+				}
+			}
+			if (verifiedToken != null && jwtTokenProvider.isTokenExpired(verifiedToken)) {
+				log.debug("doFilterInternal] - The token of '{}' is expired", verifiedToken.getSubject());
+				verifiedToken = null;
+			}
+			if (verifiedToken != null && isRevoked(verifiedToken)) {
+				log.debug("doFilterInternal] - The token of '{}' is revoked", verifiedToken.getSubject());
+				verifiedToken = null;
 			}
 		} else {
 			log.debug("doFilterInternal] - couldn't find bearer string, will ignore the header");
 		}
-		if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+		if (verifiedToken != null && verifiedToken.getSubject() != null
+				&& SecurityContextHolder.getContext().getAuthentication() == null) {
 
+			String username = verifiedToken.getSubject();
 			try {
-				UserDetails userDetails = userService.loadUserByUsername(username);
-
-				if (!userDetails.isEnabled())
-					throw new DisabledException("Authentication for user '" + username + "' is disabled");
+				UserDetails userDetails = statelessPrincipal
+						? principalFromToken(verifiedToken)
+						: userService.loadUserByUsername(username);
 
-				if (jwtTokenProvider.validateToken(jwtInCookie, userDetails)) {
+				if (userDetails == null) {
+					userNotFoundLog.warn("doFilterInternal] - The user of the token is not found: {}", username);
+				} else if (!userDetails.isEnabled()) {
+					userDisabledLog.warn("doFilterInternal] - The user of the token is disabled: {}", username);
+				} else if (jwtTokenProvider.validateToken(verifiedToken, userDetails)) {
 					UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
 							userDetails, null, userDetails.getAuthorities());
 					authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-					log.info("doFilterInternal] - authenticated user " + username + ", setting security context");
+					log.debug("doFilterInternal] - Authenticated user '{}', setting security context", username);
 					SecurityContextHolder.getContext().setAuthentication(authentication);
 				}
 			} catch (UsernameNotFoundException e) {
-				log.warn("doFilterInternal] - catched UsernameNotFoundException: " + e.getMessage());
-			} catch (DisabledException e) {
-				log.warn("doFilterInternal] - catched DisabledException: " + e.getMessage());
+				userNotFoundLog.warn("doFilterInternal] - The user of the token is not found: {}", username);
 			}
 
 		}
 
 		chain.doFilter(request, response);
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Checks if the token is revoked. The token is not accepted if the revocation
+	 * can not be checked.
+	 *
+	 * @param verifiedToken the verified token
+	 * @return true, if the token is revoked or its revocation is unknown
+	 */
+	private boolean isRevoked(VerifiedToken verifiedToken) {
+		try {
+			return tokenRevocationStore.isRevoked(verifiedToken);
+		} catch (SharedStoreException e) {
+			revocationUnknownLog.warn("isRevoked] - The revocation of the token is unknown: {}", e.getErrMsg());
+			return true;
+		}
+	}
+
+	/**
+	 * Builds the user principal from the verified token claims. Only the existence
+	 * of the user is checked, so no user or OTP entity is loaded.
+	 *
+	 * @param verifiedToken the verified token
+	 * @return the user details or null if the user does not exist anymore
+	 */
+	private UserDetails principalFromToken(VerifiedToken verifiedToken) {
+		String username = verifiedToken.getSubject();
+		if (!userService.isUserExists(username)) {
+			return null;
+		}
+		return new UserPrincipal(username, "", verifiedToken.getScopes());
+	}
+}
@@ -0,0 +1,129 @@
+package depavlo.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class JwtTokenCache that keeps already verified tokens, so the repeated
+ * requests with the same bearer token skip the signature verification. Tokens
+ * are keyed by the SHA-256 digest of the compact token and every entry is
+ * evicted at the moment the token itself stops being valid.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class JwtTokenCache {
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** The token expiration msec. */
+	@Value("${app.auth.tokenExpirationMsec}")
+	private Integer tokenExpirationMsec;
+
+	/** The max count of cached tokens. */
+	@Value("${app.auth.tokenCacheMaxSize}")
+	private Long tokenCacheMaxSize;
+
+	/** The cache of verified tokens. */
+	private Cache<HashCode, VerifiedToken> cache;
+
+	/**
+	 * Builds the cache and registers its metrics.
+	 */
+	@PostConstruct
+	private void init() {
+		log.info("init] - Create verified JWT cache with max size {}", tokenCacheMaxSize);
+		cache = Caffeine.newBuilder()
+				.maximumSize(tokenCacheMaxSize)
+				.expireAfter(new TokenExpiry())
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified");
+	}
+
+	/**
+	 * Gets the verified token from the cache.
+	 *
+	 * @param token the compact token
+	 * @return the verified token or null if token is not cached
+	 */
+	public VerifiedToken get(@NonNull String token) {
+		return cache.getIfPresent(digest(token));
+	}
+
+	/**
+	 * Puts the verified token into the cache.
+	 *
+	 * @param token         the compact token
+	 * @param verifiedToken the verified token
+	 */
+	public void put(@NonNull String token, @NonNull VerifiedToken verifiedToken) {
+		if (evictAt(verifiedToken) > System.currentTimeMillis()) {
+			cache.put(digest(token), verifiedToken);
+		}
+	}
+
+	/**
+	 * Calculates the digest of the token.
+	 *
+	 * @param token the token
+	 * @return the hash code
+	 */
+	private static HashCode digest(String token) {
+		return Hashing.sha256().hashString(token, StandardCharsets.US_ASCII);
+	}
+
+	/**
+	 * Calculates the moment when the token must be evicted.
+	 *
+	 * @param verifiedToken the verified token
+	 * @return the moment in milliseconds
+	 */
+	private long evictAt(VerifiedToken verifiedToken) {
+		return verifiedToken.validUntil(tokenExpirationMsec);
+	}
+
+	/**
+	 * The Class TokenExpiry which expires every entry at its own time.
+	 */
+	private class TokenExpiry implements Expiry<HashCode, VerifiedToken> {
+
+		@Override
+		public long expireAfterCreate(HashCode key, VerifiedToken value, long currentTime) {
+			long ttl = evictAt(value) - System.currentTimeMillis();
+			return TimeUnit.MILLISECONDS.toNanos(Math.max(ttl, 0L));
+		}
+
+		@Override
+		public long expireAfterUpdate(HashCode key, VerifiedToken value, long currentTime,
+				long currentDuration) {
+			return expireAfterCreate(key, value, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(HashCode key, VerifiedToken value, long currentTime,
+				long currentDuration) {
+			return currentDuration;
+		}
+	}
+}
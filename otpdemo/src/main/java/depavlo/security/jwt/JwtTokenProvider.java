@@ -2,8 +2,10 @@ package depavlo.security.jwt;
 
 import java.io.Serializable;
 import java.util.Date;
+import java.util.UUID;
 import java.util.function.Function;
 
+import javax.annotation.PostConstruct;
 import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -13,10 +15,14 @@ import org.springframework.stereotype.Component;
 
 import depavlo.util.exception.JwtAuthenticationException;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Clock;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -48,12 +54,31 @@ public class JwtTokenProvider implements Serializable {
 	@Value("${app.auth.tokenPrefix}")
 	private String tokenPrefix;
 
+	/**
+	 * The clock of the parser that only verifies the signature. It never lets the
+	 * parser find the token expired, as the expiration is checked without throwing
+	 * an exception by isTokenExpired.
+	 */
+	private static final Clock SIGNATURE_ONLY_CLOCK = () -> new Date(0L);
+
+	/** The decoded token secret. */
+	private byte[] signingKey;
+
+	/**
+	 * Decode the token secret once instead of on every sign or parse.
+	 */
+	@PostConstruct
+	private void init() {
+		signingKey = TextCodec.BASE64.decode(tokenSecret);
+	}
+
 	/**
 	 * Creates the token.
 	 *
 	 * @param authentication the authentication
 	 * @return the string
 	 */
+	@Timed("jwt.create")
 	public String createToken(Authentication authentication) {
 		log.debug("createToken] - Get Principal Authentication '{}' and create JWT token", authentication);
 		UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
@@ -65,27 +90,14 @@ public class JwtTokenProvider implements Serializable {
 		Date expiryDate = new Date(now.getTime() + tokenExpirationMsec);
 		return Jwts.builder()
 				.setClaims(claims)
+				.setId(UUID.randomUUID().toString())
 				.setIssuer(tokenIssurer)
 				.setIssuedAt(now)
 				.setExpiration(expiryDate)
-				.signWith(SignatureAlgorithm.HS512, tokenSecret)
+				.signWith(SignatureAlgorithm.HS512, signingKey)
 				.compact();
 	}
 
-	/**
-	 * Checks if is token expired. Returns the true value if the expiration date
-	 * taken from the token exceeds the current date or if more milliseconds have
-	 * elapsed since the token was created than specified in the AppProperties
-	 *
-	 * @param token the token String
-	 * @return the boolean
-	 */
-	private Boolean isTokenExpired(String token) {
-		final Date expiration = getExpirationDateFromToken(token);
-		return expiration.before(new Date())
-				|| (new Date().getTime() - getIssuedDateFromToken(token).getTime()) > tokenExpirationMsec;
-	}
-
 	/**
 	 * Gets the expiration date from token.
 	 *
@@ -136,12 +148,59 @@ public class JwtTokenProvider implements Serializable {
 	 * @return the all claims from token
 	 */
 	private Claims getAllClaimsFromToken(String token) {
-		return Jwts.parser()
-				.setSigningKey(tokenSecret)
+		return parser()
 				.parseClaimsJws(token)
 				.getBody();
 	}
 
+	/**
+	 * Parses the compact token and verifies its signature once. The returned
+	 * VerifiedToken should be used for all further checks of the token. The
+	 * expired token is returned as well, as expiration is an expected condition
+	 * and it is checked by isTokenExpired without the cost of the exception.
+	 *
+	 * @param token the token
+	 * @return the verified token
+	 * @throws JwtException             if the token is invalid
+	 * @throws IllegalArgumentException if the token is empty
+	 */
+	@Timed("jwt.verify")
+	public VerifiedToken verifyToken(String token) {
+		return new VerifiedToken(parser()
+				.setClock(SIGNATURE_ONLY_CLOCK)
+				.parseClaimsJws(token)
+				.getBody());
+	}
+
+	/**
+	 * Calculates the moment after which the verified token is not valid anymore.
+	 *
+	 * @param token the verified token
+	 * @return the moment in milliseconds
+	 */
+	public long getValidUntil(VerifiedToken token) {
+		return token.validUntil(tokenExpirationMsec);
+	}
+
+	/**
+	 * Checks if the verified token is expired or older than allowed.
+	 *
+	 * @param token the verified token
+	 * @return true, if the token is expired
+	 */
+	public boolean isTokenExpired(VerifiedToken token) {
+		return token.isExpired(System.currentTimeMillis(), tokenExpirationMsec);
+	}
+
+	/**
+	 * Creates the parser for tokens signed by this provider.
+	 *
+	 * @return the jwt parser
+	 */
+	private JwtParser parser() {
+		return Jwts.parser().setSigningKey(signingKey);
+	}
+
 	/**
 	 * Validate token.
 	 *
@@ -150,9 +209,18 @@ public class JwtTokenProvider implements Serializable {
 	 * @return the boolean
 	 */
 	public Boolean validateToken(String token, UserDetails userDetails) {
-		final String username = getUsernameFromToken(token);
-		return (username.equals(userDetails.getUsername())
-				&& !isTokenExpired(token));
+		return validateToken(verifyToken(token), userDetails);
+	}
+
+	/**
+	 * Validate already verified token.
+	 *
+	 * @param token       the verified token
+	 * @param userDetails the user details
+	 * @return true, if the token belongs to the user and is not expired
+	 */
+	public boolean validateToken(VerifiedToken token, UserDetails userDetails) {
+		return userDetails.getUsername().equals(token.getSubject()) && !isTokenExpired(token);
 	}
 
 	/**
@@ -163,8 +231,7 @@ public class JwtTokenProvider implements Serializable {
 	 */
 	public boolean validateToken(String token) {
 		try {
-			Jws<Claims> claims = Jwts.parser().setSigningKey(tokenSecret)
-					.parseClaimsJws(token);
+			Jws<Claims> claims = parser().parseClaimsJws(token);
 
 			if (claims.getBody().getExpiration().before(new Date())) {
 				return false;
@@ -0,0 +1,103 @@
+package depavlo.security.jwt;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import depavlo.store.NearCache;
+import depavlo.store.SharedStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class TokenRevocationStore that keeps the ids of the revoked tokens in
+ * the store shared by all instances, so the token revoked by logout on one
+ * instance is rejected by every instance. The id is kept only until the token
+ * stops being valid by itself. The answers are kept in the near cache that is
+ * invalidated by the instance which revokes the token, so the token which is
+ * not revoked is checked without the call of the shared store.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationStore {
+
+	/** The prefix of the revoked token keys. */
+	private static final String KEY_PREFIX = "jwt-revoked:";
+
+	/** The channel of the revoked token keys. */
+	private static final String CHANNEL = "jwt-revoked";
+
+	/** The shared store. */
+	private final SharedStore sharedStore;
+
+	/** The jwt token provider. */
+	private final JwtTokenProvider jwtTokenProvider;
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** The max count of token ids kept in the near cache. */
+	@Value("${app.store.nearCache.maxSize}")
+	private Long nearCacheMaxSize;
+
+	/** The time to live of the near cache entry. */
+	@Value("${app.store.nearCache.ttlMsec}")
+	private Long nearCacheTtlMsec;
+
+	/** The near cache of the revocations by key. */
+	private NearCache<Boolean> nearCache;
+
+	/**
+	 * Creates the near cache.
+	 */
+	@PostConstruct
+	private void init() {
+		nearCache = new NearCache<>(sharedStore, CHANNEL, nearCacheMaxSize, nearCacheTtlMsec, meterRegistry);
+	}
+
+	/**
+	 * Revokes the token until it stops being valid. The token without id can not
+	 * be revoked.
+	 *
+	 * @param token the verified token
+	 * @return true, if the token is revoked
+	 */
+	public boolean revoke(@NonNull VerifiedToken token) {
+		if (token.getId() == null) {
+			log.debug("revoke] - The token of '{}' has no id", token.getSubject());
+			return false;
+		}
+		long ttl = jwtTokenProvider.getValidUntil(token) - System.currentTimeMillis();
+		if (ttl > 0) {
+			String key = KEY_PREFIX + token.getId();
+			sharedStore.set(key, token.getSubject(), ttl);
+			nearCache.invalidate(key);
+			meterRegistry.counter("jwt.revoked").increment();
+		}
+		log.debug("revoke] - Revoked the token of '{}'", token.getSubject());
+		return true;
+	}
+
+	/**
+	 * Checks if the token is revoked.
+	 *
+	 * @param token the verified token
+	 * @return true, if revoked
+	 * @throws depavlo.util.exception.SharedStoreException if the shared store is
+	 *                                                     not available
+	 */
+	public boolean isRevoked(@NonNull VerifiedToken token) {
+		if (token.getId() == null) {
+			return false;
+		}
+		return nearCache.get(KEY_PREFIX + token.getId(), key -> sharedStore.get(key) == null ? null : Boolean.TRUE)
+				.isPresent();
+	}
+
+}
@@ -0,0 +1,130 @@
+package depavlo.security.jwt;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * The Class VerifiedToken is an immutable snapshot of the claims of a JWT token
+ * whose signature has already been verified. It allows the authentication
+ * pipeline to work with the token without parsing it again.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Getter
+@ToString
+public final class VerifiedToken implements Serializable {
+
+	private static final long serialVersionUID = 3416279584427745930L;
+
+	/** The token id, or null if absent. */
+	private final String id;
+
+	/** The token subject (user email). */
+	private final String subject;
+
+	/** The token issuer. */
+	private final String issuer;
+
+	/** The token issued at time in milliseconds, or 0 if absent. */
+	private final long issuedAt;
+
+	/** The token expiration time in milliseconds, or 0 if absent. */
+	private final long expiration;
+
+	/** The granted authorities from the "scopes" claim. */
+	private final List<String> scopes;
+
+	/**
+	 * Instantiates a new verified token from the verified claims.
+	 *
+	 * @param claims the verified Claims
+	 */
+	VerifiedToken(@NonNull Claims claims) {
+		this.id = claims.getId();
+		this.subject = claims.getSubject();
+		this.issuer = claims.getIssuer();
+		this.issuedAt = toMillis(claims.getIssuedAt());
+		this.expiration = toMillis(claims.getExpiration());
+		this.scopes = toScopes(claims.get("scopes"));
+	}
+
+	/**
+	 * Checks if is token expired at the given moment. The token is expired if the
+	 * expiration date is before the moment or if more than maxAgeMsec milliseconds
+	 * have elapsed since the token was created.
+	 *
+	 * @param now        the moment in milliseconds
+	 * @param maxAgeMsec the max token age in milliseconds
+	 * @return true, if is expired
+	 */
+	public boolean isExpired(long now, long maxAgeMsec) {
+		return expiration < now || now - issuedAt > maxAgeMsec;
+	}
+
+	/**
+	 * Calculates the moment after which the token is not valid anymore. It is the
+	 * earliest of the token expiration and the moment the token becomes older than
+	 * allowed.
+	 *
+	 * @param maxAgeMsec the max token age in milliseconds
+	 * @return the moment in milliseconds
+	 */
+	public long validUntil(long maxAgeMsec) {
+		return Math.min(expiration, issuedAt + maxAgeMsec);
+	}
+
+	/**
+	 * Gets the issued date.
+	 *
+	 * @return the issued date
+	 */
+	public Date getIssuedDate() {
+		return new Date(issuedAt);
+	}
+
+	/**
+	 * Gets the expiration date.
+	 *
+	 * @return the expiration date
+	 */
+	public Date getExpirationDate() {
+		return new Date(expiration);
+	}
+
+	/**
+	 * Converts the "scopes" claim to the list of authorities. The claim is a list
+	 * of serialized GrantedAuthority objects or a list of plain strings.
+	 *
+	 * @param claim the claim value
+	 * @return the unmodifiable list of authorities
+	 */
+	private static List<String> toScopes(Object claim) {
+		if (!(claim instanceof Collection)) {
+			return List.of();
+		}
+		return ((Collection<?>) claim).stream()
+				.map(scope -> scope instanceof Map ? ((Map<?, ?>) scope).get("authority") : scope)
+				.filter(String.class::isInstance)
+				.map(String.class::cast)
+				.collect(Collectors.toUnmodifiableList());
+	}
+
+	/**
+	 * Converts the Date to milliseconds.
+	 *
+	 * @param date the date
+	 * @return the milliseconds or 0 if date is null
+	 */
+	private static long toMillis(Date date) {
+		return date == null ? 0L : date.getTime();
+	}
+}
@@ -0,0 +1,155 @@
+package depavlo.service;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import depavlo.config.MailDispatchConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class MailDeliveryService that sends emails to the SMTP server. All
+ * emails passed in one call are sent through one SMTP connection. The emails
+ * that failed are retried with exponential backoff. The task scheduler waits
+ * for the backoff and hands the retry back to the mail dispatch executor, so a
+ * slow or down SMTP server does not hold its threads.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+@Service
+public class MailDeliveryService {
+
+	/** The java mail sender. */
+	private final JavaMailSender javaMailSender;
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** The task scheduler of the retries. */
+	private final TaskScheduler taskScheduler;
+
+	/** The mail dispatch executor that makes the retries. */
+	private final TaskExecutor mailDispatchExecutor;
+
+	/** The max count of attempts to send the email. */
+	@Value("${app.mail.dispatch.maxAttempts}")
+	private Integer maxAttempts;
+
+	/** The delay before the first retry, it is doubled for each next retry. */
+	@Value("${app.mail.dispatch.retryDelayMsec}")
+	private Long retryDelayMsec;
+
+	/**
+	 * Instantiates a new mail delivery service.
+	 *
+	 * @param javaMailSender       the java mail sender
+	 * @param meterRegistry        the meter registry
+	 * @param taskScheduler        the task scheduler of the retries
+	 * @param mailDispatchExecutor the mail dispatch executor
+	 */
+	public MailDeliveryService(JavaMailSender javaMailSender, MeterRegistry meterRegistry,
+			TaskScheduler taskScheduler,
+			@Qualifier(MailDispatchConfig.MAIL_DISPATCH_EXECUTOR) TaskExecutor mailDispatchExecutor) {
+		this.javaMailSender = javaMailSender;
+		this.meterRegistry = meterRegistry;
+		this.taskScheduler = taskScheduler;
+		this.mailDispatchExecutor = mailDispatchExecutor;
+	}
+
+	/**
+	 * Send the emails through one SMTP connection. The calling thread makes the
+	 * first attempt only, the emails that failed are retried later by the mail
+	 * dispatch executor.
+	 *
+	 * @param mails the emails
+	 */
+	public void deliver(@NonNull SimpleMailMessage... mails) {
+		meterRegistry.summary("otp.mail.batch.size").record(mails.length);
+		attempt(mails, 1, retryDelayMsec);
+	}
+
+	/**
+	 * Makes the attempt to send the emails and schedules the retry of the failed
+	 * ones.
+	 *
+	 * @param mails   the emails
+	 * @param attempt the number of the attempt
+	 * @param delay   the delay before the next retry in milliseconds
+	 */
+	private void attempt(SimpleMailMessage[] mails, int attempt, long delay) {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			javaMailSender.send(mails);
+			sample.stop(meterRegistry.timer("otp.mail.send", "outcome", "success"));
+			log.debug("attempt] - {} email(s) sent with attempt {}", mails.length, attempt);
+			return;
+		} catch (MailException e) {
+			sample.stop(meterRegistry.timer("otp.mail.send", "outcome", "failure"));
+			SimpleMailMessage[] failed = failedMails(e, mails);
+			if (attempt >= maxAttempts) {
+				log.error("attempt] - {} email(s) were not sent after {} attempts: {}", failed.length, attempt,
+						e.getMessage());
+				meterRegistry.counter("otp.mail.undelivered").increment(failed.length);
+				return;
+			}
+			log.warn("attempt] - Attempt {} to send {} email(s) failed, retry in {} msec: {}", attempt,
+					failed.length, delay, e.getMessage());
+			try {
+				taskScheduler.schedule(() -> retry(failed, attempt + 1, delay * 2),
+						Instant.now().plusMillis(delay));
+			} catch (TaskRejectedException ex) {
+				log.error("attempt] - Retry is not scheduled, {} email(s) were not sent", failed.length);
+				meterRegistry.counter("otp.mail.undelivered").increment(failed.length);
+			}
+		}
+	}
+
+	/**
+	 * Hands the retry to the mail dispatch executor.
+	 *
+	 * @param mails   the emails
+	 * @param attempt the number of the attempt
+	 * @param delay   the delay before the next retry in milliseconds
+	 */
+	private void retry(SimpleMailMessage[] mails, int attempt, long delay) {
+		try {
+			mailDispatchExecutor.execute(() -> attempt(mails, attempt, delay));
+		} catch (TaskRejectedException e) {
+			log.error("retry] - Mail dispatch queue is full, {} email(s) were not sent", mails.length);
+			meterRegistry.counter("otp.mail.undelivered").increment(mails.length);
+		}
+	}
+
+	/**
+	 * Gets the emails that were not sent.
+	 *
+	 * @param e     the mail exception
+	 * @param mails the emails that were tried to send
+	 * @return the emails that were not sent
+	 */
+	private static SimpleMailMessage[] failedMails(MailException e, SimpleMailMessage[] mails) {
+		if (e instanceof MailSendException) {
+			SimpleMailMessage[] failed = ((MailSendException) e).getFailedMessages().keySet().stream()
+					.filter(SimpleMailMessage.class::isInstance)
+					.toArray(SimpleMailMessage[]::new);
+			if (failed.length > 0) {
+				return failed;
+			}
+		}
+		return mails;
+	}
+
+}
@@ -0,0 +1,170 @@
+package depavlo.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import depavlo.model.Otp;
+import depavlo.model.User;
+import depavlo.service.OtpNotificationService.Notification;
+import depavlo.ui.rest.v1.model.response.OtpRequestResult;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class OtpIssuer that issues the OTP for the group of users. The users and
+ * their OTP are loaded by one query each, the OTP are hashed in parallel, saved
+ * in one transaction and the emails are handed to the mail dispatch by batches.
+ * The user that has the OTP which is not expired yet does not get the new one.
+ * The OTP which is issued for the same email meanwhile by the concurrent
+ * request is kept, only that email is left out of the batch.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OtpIssuer {
+
+	/** The user service to repo. */
+	private final UserServiceToRepo userServiceToRepo;
+
+	/** The otp service to repo. */
+	private final OtpServiceToRepo otpServiceToRepo;
+
+	/** The password encoder. */
+	private final PasswordEncoder passwordEncoder;
+
+	/** The otp notification service. */
+	private final OtpNotificationService otpNotificationService;
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** The token expiration msec. */
+	@Value("${app.otp.tokenExpirationMsec}")
+	private Integer tokenExpirationMsec;
+
+	/**
+	 * Issue the OTP for the users of the emails.
+	 *
+	 * @param emails the distinct normalized emails
+	 * @return the status of each email that belongs to the user, the emails of no
+	 *         user are left out
+	 */
+	@Timed("otp.issuer")
+	public Map<String, String> issue(@NonNull Collection<String> emails) {
+		log.debug("issue] - Issue OTP for {} emails", emails.size());
+
+		List<User> users = userServiceToRepo.loadUsersByUsernames(emails);
+		Map<String, Otp> existing = otpServiceToRepo
+				.loadOtpsByUsernames(users.stream().map(User::getEmail).collect(Collectors.toList())).stream()
+				.collect(Collectors.toMap(Otp::getEmail, Function.identity()));
+
+		Map<String, String> statuses = new HashMap<>();
+		Date now = new Date();
+		List<Otp> replaced = new ArrayList<>();
+		List<User> recipients = new ArrayList<>();
+		for (User user : users) {
+			Otp otp = existing.get(user.getEmail());
+			if (otp != null && otp.getExpired().after(now)) {
+				statuses.put(user.getEmail(), OtpRequestResult.PENDING); // exist "old" one-time password
+			} else {
+				if (otp != null) {
+					replaced.add(otp);
+				}
+				recipients.add(user);
+			}
+		}
+		if (recipients.isEmpty()) {
+			return statuses;
+		}
+
+		// the hash is the most expensive step, so the OTP are hashed in parallel
+		List<String> passwords = recipients.stream()
+				.map(user -> UUID.randomUUID().toString())
+				.collect(Collectors.toList());
+		List<String> hashes = passwords.parallelStream()
+				.map(passwordEncoder::encode)
+				.collect(Collectors.toList());
+
+		Date expiryDate = new Date(now.getTime() + tokenExpirationMsec);
+		List<Otp> otps = new ArrayList<>(recipients.size());
+		List<Notification> notifications = new ArrayList<>(recipients.size());
+		for (int i = 0; i < recipients.size(); i++) {
+			User user = recipients.get(i);
+			Otp otp = new Otp();
+			otp.setEmail(user.getEmail());
+			otp.setExpired(expiryDate);
+			otp.setPassword(hashes.get(i));
+			otps.add(otp);
+			notifications.add(new Notification(user.getName(), user.getEmail(), passwords.get(i)));
+		}
+		try {
+			otpServiceToRepo.replaceAll(replaced, otps);
+		} catch (DataIntegrityViolationException e) {
+			log.debug("issue] - OTP of some email is issued meanwhile, save OTP one by one: {}", e.getMessage());
+			Set<String> conflicts = replaceEach(replaced, otps);
+			otps.removeIf(otp -> conflicts.contains(otp.getEmail()));
+			notifications.removeIf(notification -> conflicts.contains(notification.getEmail()));
+			recipients.removeIf(user -> conflicts.contains(user.getEmail()));
+			conflicts.forEach(email -> statuses.put(email, OtpRequestResult.PENDING));
+		}
+		meterRegistry.counter("otp.issued").increment(otps.size());
+
+		Set<String> rejected = new HashSet<>(otpNotificationService.sendNotificationsToUsers(notifications));
+		for (User user : recipients) {
+			if (rejected.contains(user.getEmail())) {
+				otpServiceToRepo.deleteByEmail(user.getEmail()); // let the user request OTP again
+				statuses.put(user.getEmail(), OtpRequestResult.FAILED);
+			} else {
+				statuses.put(user.getEmail(), OtpRequestResult.ISSUED);
+			}
+		}
+		return statuses;
+	}
+
+	/**
+	 * Replace the OTP of each email in its own transaction. The email which OTP is
+	 * inserted meanwhile by the concurrent request violates the unique email and
+	 * keeps that OTP.
+	 *
+	 * @param replaced the otp to delete
+	 * @param otps     the otp to save
+	 * @return the emails that already have the OTP issued by the concurrent
+	 *         request
+	 */
+	private Set<String> replaceEach(List<Otp> replaced, List<Otp> otps) {
+		Map<String, Otp> replacedByEmail = replaced.stream()
+				.collect(Collectors.toMap(Otp::getEmail, Function.identity()));
+		Set<String> conflicts = new HashSet<>();
+		for (Otp otp : otps) {
+			Otp old = replacedByEmail.get(otp.getEmail());
+			otp.setId(null); // the id given by the rolled back batch
+			try {
+				otpServiceToRepo.replaceAll(old == null ? List.of() : List.of(old), List.of(otp));
+			} catch (DataIntegrityViolationException e) {
+				log.debug("replaceEach] - OTP of '{}' is issued meanwhile", otp.getEmail());
+				conflicts.add(otp.getEmail());
+			}
+		}
+		return conflicts;
+	}
+
+}
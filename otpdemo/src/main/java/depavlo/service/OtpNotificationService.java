@@ -1,50 +1,100 @@
 package depavlo.service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import depavlo.config.MailDispatchConfig;
+import lombok.Getter;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * The Class OtpNotificationService that asynchronously send requested otp to
- * user.
+ * users. The OTP requests are collected into groups by the OtpRequestPipeline,
+ * so the emails of the group are handed to the mail dispatch executor by
+ * batches, which is rejected when its queue is full.
  * 
  * @author Pavlo Degtyaryev
  */
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class OtpNotificationService {
 
-	/** The java mail sender. */
-	private final JavaMailSender javaMailSender;
+	/** The mail delivery service. */
+	private final MailDeliveryService mailDeliveryService;
+
+	/** The mail dispatch executor. */
+	private final TaskExecutor mailDispatchExecutor;
 
 	/** The sender in email field "From". */
 	@Value("${app.otp.sender}")
 	private String sender;
 
+	/** The max count of emails in one batch. */
+	@Value("${app.mail.batch.maxSize}")
+	private Integer batchMaxSize;
+
+	/**
+	 * Instantiates a new otp notification service.
+	 *
+	 * @param mailDeliveryService  the mail delivery service
+	 * @param mailDispatchExecutor the mail dispatch executor
+	 */
+	public OtpNotificationService(MailDeliveryService mailDeliveryService,
+			@Qualifier(MailDispatchConfig.MAIL_DISPATCH_EXECUTOR) TaskExecutor mailDispatchExecutor) {
+		this.mailDeliveryService = mailDeliveryService;
+		this.mailDispatchExecutor = mailDispatchExecutor;
+	}
+
+	/**
+	 * Asynchronously send requested OTP to the group of users. The emails are
+	 * handed to the mail dispatch executor by batches, each batch is sent through
+	 * one SMTP connection.
+	 *
+	 * @param notifications the notifications
+	 * @return the emails that were not queued because the queue is full
+	 */
+	public List<String> sendNotificationsToUsers(@NonNull List<Notification> notifications) {
+
+		log.debug("sendNotificationsToUsers] - Perform send OTP key to {} Users", notifications.size());
+
+		List<String> rejected = new ArrayList<>();
+		for (int from = 0; from < notifications.size(); from += batchMaxSize) {
+			int to = Math.min(from + batchMaxSize, notifications.size());
+			SimpleMailMessage[] batch = notifications.subList(from, to).stream()
+					.map(n -> createMail(n.getUsername(), n.getEmail(), n.getKey()))
+					.toArray(SimpleMailMessage[]::new);
+			try {
+				mailDispatchExecutor.execute(() -> mailDeliveryService.deliver(batch));
+			} catch (TaskRejectedException e) {
+				Arrays.stream(batch).forEach(mail -> rejected.add(mail.getTo()[0]));
+			}
+		}
+		if (!rejected.isEmpty()) {
+			log.warn("sendNotificationsToUsers] - Mail dispatch queue is full, {} OTP are not sent", rejected.size());
+		}
+		return rejected;
+	}
+
 	/**
-	 * Asynchronously send requested OTP to user.
+	 * Creates the email with OTP.
 	 *
 	 * @param username the User Name
 	 * @param email    the User email
 	 * @param key      the OTP
-	 * @throws MailException        the mail exception
-	 * @throws InterruptedException the interrupted exception
+	 * @return the email
 	 */
-	@Async
-	public void sendNotificationToUser(@NonNull String username, @NonNull String email, @NonNull String key)
-			throws MailException, InterruptedException {
-
-		log.debug("sendNotificationToUser] - Perform send OTP key to User: {}", email);
-
+	private SimpleMailMessage createMail(String username, String email, String key) {
 		StringBuffer sb = new StringBuffer();
 
 		sb.append("Hello, ").append(username).append(".\n\n");
@@ -60,10 +110,24 @@ public class OtpNotificationService {
 		mail.setFrom(sender);
 		mail.setSubject("OTP requested.");
 		mail.setText(sb.toString());
+		return mail;
+	}
+
+	/**
+	 * The Class Notification that is the OTP to send to the User.
+	 */
+	@Getter
+	@RequiredArgsConstructor
+	public static class Notification {
+
+		/** The User Name. */
+		private final String username;
 
-		javaMailSender.send(mail);
+		/** The User email. */
+		private final String email;
 
-		log.info("sendNotificationToUser] - Email to User: '{}' with OPT was sent to Email: '{}'.", username, email);
+		/** The OTP. */
+		private final String key;
 	}
 
 }
@@ -0,0 +1,164 @@
+package depavlo.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import depavlo.ui.rest.v1.model.response.OtpRequestResult;
+import depavlo.util.EmailNormalizer;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class OtpRequestPipeline that accepts the OTP requests without waiting for
+ * the database and the mail. The request is put into the bounded queue and the
+ * worker thread collects the queued emails during a short time window and
+ * issues their OTP as one batch. The email that is already waiting in the queue
+ * is not queued again, so the burst of requests of one user costs one OTP.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OtpRequestPipeline {
+
+	/** The otp issuer. */
+	private final OtpIssuer otpIssuer;
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** The capacity of the queue of waiting requests. */
+	@Value("${app.otp.pipeline.queueCapacity}")
+	private Integer queueCapacity;
+
+	/** The time in milliseconds during which the requests are collected. */
+	@Value("${app.otp.pipeline.windowMsec}")
+	private Long windowMsec;
+
+	/** The max count of emails issued in one batch. */
+	@Value("${app.otp.pipeline.maxBatchSize}")
+	private Integer maxBatchSize;
+
+	/** The queue of waiting emails. */
+	private BlockingQueue<String> pending;
+
+	/** The emails that are queued or being issued. */
+	private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+	/** The worker thread. */
+	private Thread worker;
+
+	/**
+	 * Starts the worker thread.
+	 */
+	@PostConstruct
+	private void start() {
+		pending = new ArrayBlockingQueue<>(queueCapacity);
+		meterRegistry.gaugeCollectionSize("otp.request.pending", List.of(), pending);
+		worker = new Thread(this::work, "otp-request-pipeline");
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/**
+	 * Stops the worker thread and issues the OTP of the requests that are still
+	 * waiting.
+	 *
+	 * @throws InterruptedException the interrupted exception
+	 */
+	@PreDestroy
+	private void stop() throws InterruptedException {
+		worker.interrupt();
+		worker.join(TimeUnit.SECONDS.toMillis(5));
+		List<String> rest = new ArrayList<>();
+		pending.drainTo(rest);
+		if (!rest.isEmpty()) {
+			log.info("stop] - Issue OTP for {} waiting request(s) before shutdown", rest.size());
+			issue(rest);
+		}
+	}
+
+	/**
+	 * Adds the OTP request to the queue. Nothing is done if the request of the
+	 * same email is waiting already.
+	 *
+	 * @param email the email
+	 * @throws TaskRejectedException if the queue of waiting requests is full
+	 */
+	public void submit(@NonNull String email) {
+		email = EmailNormalizer.normalize(email);
+		if (!queued.add(email)) {
+			meterRegistry.counter("otp.request.coalesced").increment();
+			return;
+		}
+		if (!pending.offer(email)) {
+			queued.remove(email);
+			meterRegistry.counter("otp.request.rejected").increment();
+			throw new TaskRejectedException("Queue of waiting OTP requests is full");
+		}
+	}
+
+	/**
+	 * Collects the waiting emails into batches and issues their OTP.
+	 */
+	private void work() {
+		while (!Thread.currentThread().isInterrupted()) {
+			try {
+				List<String> batch = new ArrayList<>(maxBatchSize);
+				batch.add(pending.take());
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMsec);
+				while (batch.size() < maxBatchSize) {
+					String email = pending.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (email == null) {
+						break;
+					}
+					batch.add(email);
+				}
+				issue(batch);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Issues the OTP for the batch. The emails are released only after the OTP are
+	 * saved, so the requests that come meanwhile are coalesced with the batch.
+	 *
+	 * @param batch the batch of emails
+	 */
+	private void issue(List<String> batch) {
+		log.debug("issue] - Issue OTP for batch of {} request(s)", batch.size());
+		meterRegistry.summary("otp.request.batch").record(batch.size());
+		try {
+			Map<String, String> statuses = otpIssuer.issue(batch);
+			long failed = statuses.values().stream().filter(OtpRequestResult.FAILED::equals).count();
+			if (failed > 0) {
+				log.warn("issue] - Mail dispatch queue is full, {} OTP are not sent", failed);
+				meterRegistry.counter("otp.request.failed").increment(failed);
+			}
+		} catch (RuntimeException e) {
+			log.error("issue] - OTP for batch of {} request(s) are not issued", batch.size(), e);
+			meterRegistry.counter("otp.request.failed").increment(batch.size());
+		} finally {
+			queued.removeAll(batch);
+		}
+	}
+
+}
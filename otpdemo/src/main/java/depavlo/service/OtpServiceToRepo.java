@@ -1,6 +1,8 @@
 package depavlo.service;
 
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.stereotype.Service;
@@ -25,6 +27,14 @@ public interface OtpServiceToRepo {
 	 */
 	Optional<Otp> loadOtpByUsername(@NonNull String username);
 
+	/**
+	 * Load otp by usernames with one query.
+	 *
+	 * @param usernames the usernames
+	 * @return the found otp
+	 */
+	List<Otp> loadOtpsByUsernames(@NonNull Collection<String> usernames);
+
 	/**
 	 * Save otp.
 	 *
@@ -33,6 +43,16 @@ public interface OtpServiceToRepo {
 	 */
 	Optional<Otp> save(@NonNull Otp otp);
 
+	/**
+	 * Delete the replaced otp and save the new otp in one transaction. The new otp
+	 * are inserted by JDBC batches.
+	 *
+	 * @param replaced the otp to delete
+	 * @param otps     the otp to save
+	 * @return the saved otp
+	 */
+	List<Otp> replaceAll(@NonNull Collection<Otp> replaced, @NonNull List<Otp> otps);
+
 	/**
 	 * Delete otp by email.
 	 *
@@ -41,10 +61,23 @@ public interface OtpServiceToRepo {
 	void deleteByEmail(@NonNull String email);
 
 	/**
-	 * Delete the old otp that are before the date
+	 * Consume the verified otp. It is removed from the storage only if it was not
+	 * replaced, consumed or expired since it was loaded.
+	 *
+	 * @param otp the otp
+	 * @return true, if the otp was consumed by this call
+	 */
+	boolean consume(@NonNull Otp otp);
+
+	/**
+	 * Delete at most limit of the old otp that are before the date. Every call is
+	 * the separate transaction, so the large purge is done by repeated calls
+	 * without holding the locks of all expired otp.
 	 *
-	 * @param date the date
+	 * @param date  the date
+	 * @param limit the max count of otp to delete
+	 * @return the count of deleted otp
 	 */
-	void deleteOtpBefore(Date date);
+	int deleteOtpBefore(Date date, int limit);
 
 }
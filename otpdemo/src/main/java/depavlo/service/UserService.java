@@ -1,17 +1,24 @@
 package depavlo.service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import javax.annotation.security.RolesAllowed;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.validator.routines.EmailValidator;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -20,21 +27,29 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import com.google.common.annotations.VisibleForTesting;
+
 import depavlo.model.Otp;
 import depavlo.model.User;
+import depavlo.security.OtpRateLimiter;
 import depavlo.security.UserPrincipal;
 import depavlo.security.jwt.JwtTokenProvider;
 import depavlo.ui.rest.v1.model.request.UserCreateRequest;
 import depavlo.ui.rest.v1.model.request.UserUpdateRequest;
+import depavlo.ui.rest.v1.model.response.OtpRequestResult;
+import depavlo.ui.rest.v1.model.response.UserImportResponse;
+import depavlo.ui.rest.v1.model.response.UsersPageResponse;
 import depavlo.util.AuditResponse;
+import depavlo.util.EmailNormalizer;
 import depavlo.util.MaritalStatus;
 import depavlo.util.exception.OtpMailException;
+import depavlo.util.exception.RateLimitExceededException;
 import depavlo.util.exception.UserCreateRequestAuditException;
 import depavlo.util.exception.UserNotFoundException;
 import depavlo.util.exception.UserUpdateRequestAuditException;
+import io.micrometer.core.annotation.Timed;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -55,11 +70,14 @@ public class UserService implements UserDetailsService {
 	/** The otp service to repo. */
 	private final OtpServiceToRepo otpServiceToRepo;
 
-	/** The password encoder. */
-	private final PasswordEncoder passwordEncoder;
+	/** The otp issuer. */
+	private final OtpIssuer otpIssuer;
+
+	/** The otp request pipeline. */
+	private final OtpRequestPipeline otpRequestPipeline;
 
-	/** The otp notification service. */
-	private final OtpNotificationService otpNotificationService;
+	/** The otp rate limiter. */
+	private final OtpRateLimiter otpRateLimiter;
 
 	/** The jwt token provider. */
 	private final JwtTokenProvider jwtTokenProvider;
@@ -67,9 +85,17 @@ public class UserService implements UserDetailsService {
 	/** The authentication manager. */
 	private final AuthenticationManager authenticationManager;
 
-	/** The token expiration msec. */
-	@Value("${app.otp.tokenExpirationMsec}")
-	private Integer tokenExpirationMsec;
+	/** The default count of users in the page. */
+	@Value("${app.user.defaultPageSize}")
+	private Integer defaultPageSize;
+
+	/** The max count of users in the page. */
+	@Value("${app.user.maxPageSize}")
+	private Integer maxPageSize;
+
+	/** The count of imported users saved in one transaction. */
+	@Value("${app.user.importBatchSize}")
+	private Integer importBatchSize;
 
 	/**
 	 * Load user by user name.
@@ -79,6 +105,7 @@ public class UserService implements UserDetailsService {
 	 * @throws UsernameNotFoundException if the user name is not found
 	 */
 	@Override
+	@Timed("user.service")
 	public UserDetails loadUserByUsername(@NonNull String username) throws UsernameNotFoundException {
 		Optional<User> user = userServiceToRepo.loadUserByUsername(username);
 		Optional<Otp> otp = otpServiceToRepo.loadOtpByUsername(username);
@@ -96,48 +123,86 @@ public class UserService implements UserDetailsService {
 	}
 
 	/**
-	 * Request otp that will be send to user email.
+	 * Checks if the user with given user name exists.
+	 *
+	 * @param username the String
+	 * @return true, if the user exists
+	 */
+	@Timed("user.service")
+	public boolean isUserExists(@NonNull String username) {
+		return userServiceToRepo.isUserExists(username);
+	}
+
+	/**
+	 * Request otp that will be send to user email. The request is queued and the
+	 * OTP is issued and sent by the OTP request pipeline.
 	 *
 	 * @param email the String
 	 */
+	@Timed("user.service")
 	public void requestOtp(@NonNull String email) {
-
-		Optional<User> userO = userServiceToRepo.loadUserByUsername(email);
-		if (userO.isEmpty()) {
-			return;// user is not exist
+		try {
+			otpRequestPipeline.submit(email);
+		} catch (TaskRejectedException e) {
+			log.warn("requestOtp] - OTP request queue is full, request for '{}' is rejected", email);
+			OtpMailException ex = new OtpMailException();
+			ex.setErrMsg("Mail service is busy. Please try again later.");
+			throw ex;
 		}
+	}
 
-		Optional<Otp> otpO = otpServiceToRepo.loadOtpByUsername(email);
-		Date now = new Date();
-		if (otpO.isPresent()) {
-			if (otpO.get().getExpired().after(now)) {
-				return; // exist "old" ome-time password
+	/**
+	 * Request otp for the group of users. The OTP are issued at once by the OTP
+	 * issuer, and as by the single request, the user that has the OTP which is not
+	 * expired yet does not get the new one. Each email takes the tokens of the
+	 * same email and client IP limits as the single request, the email that is
+	 * over the limit is left out.
+	 *
+	 * @param emails   the emails
+	 * @param clientIp the client IP address
+	 * @return the outcome of each distinct email in the order of request
+	 */
+	@RolesAllowed({ "ROLE_USER" })
+	@Timed("user.service")
+	public List<OtpRequestResult> requestOtps(@NonNull List<String> emails, @NonNull String clientIp) {
+		log.debug("requestOtps] - Request OTP for {} emails", emails.size());
+
+		Map<String, OtpRequestResult> results = new LinkedHashMap<>();
+		for (String email : emails) {
+			if (email == null || !EmailValidator.getInstance().isValid(email.trim())) {
+				results.putIfAbsent(String.valueOf(email), new OtpRequestResult(email, OtpRequestResult.INVALID));
 			} else {
-				otpServiceToRepo.deleteByEmail(email); // request new OTP
+				String normalized = EmailNormalizer.normalize(email);
+				if (!results.containsKey(normalized)) {
+					results.put(normalized, new OtpRequestResult(normalized, checkOtpRequest(normalized, clientIp)));
+				}
 			}
 		}
+		Set<String> candidates = results.values().stream()
+				.filter(result -> OtpRequestResult.UNKNOWN.equals(result.getStatus()))
+				.map(OtpRequestResult::getEmail)
+				.collect(Collectors.toSet());
 
-		Otp otp = new Otp();
-		otp.setEmail(email);
-		Date expiryDate = new Date(now.getTime() + tokenExpirationMsec);
-		otp.setExpired(expiryDate);
-		String password = UUID.randomUUID().toString();
-		otp.setPassword(passwordEncoder.encode(password));
+		otpIssuer.issue(candidates).forEach((email, status) -> results.get(email).setStatus(status));
+		return new ArrayList<>(results.values());
+	}
 
-		otpO = otpServiceToRepo.save(otp);
-		if (otpO.isEmpty()) {
-			log.error("requestOtp] - Unknown error. OTP was not saved");
-		}
+	/**
+	 * Checks the limits of the OTP request of one email of the group.
+	 *
+	 * @param email    the normalized email
+	 * @param clientIp the client IP address
+	 * @return the status unknown until the OTP is issued, or limited if the email
+	 *         or the IP address is over the limit
+	 */
+	private String checkOtpRequest(String email, String clientIp) {
 		try {
-			otpNotificationService.sendNotificationToUser(userO.get().getName(), userO.get().getEmail(), password);
-		} catch (MailException e) {
-			OtpMailException ex = new OtpMailException();
-			ex.setErrMsg(e.getMessage());
-			throw ex;
-		} catch (InterruptedException e) {
-			log.error("requestOtp] - InterruptedException: {}", e.getMessage());
+			otpRateLimiter.checkOtpRequest(email, clientIp);
+			return OtpRequestResult.UNKNOWN;
+		} catch (RateLimitExceededException e) {
+			log.debug("checkOtpRequest] - OTP request of '{}' is over the limit", email);
+			return OtpRequestResult.LIMITED;
 		}
-
 	}
 
 	/**
@@ -147,6 +212,7 @@ public class UserService implements UserDetailsService {
 	 * @param password the password
 	 * @return the string
 	 */
+	@Timed("user.service")
 	public String createBearerToken(@NonNull String email, @NonNull String password) {
 
 		log.debug("createBearerToken] - Create Token base on authentication and return it.");
@@ -155,11 +221,8 @@ public class UserService implements UserDetailsService {
 				new UsernamePasswordAuthenticationToken(email, password));
 		SecurityContextHolder.getContext().setAuthentication(authentication);
 
-		String token = jwtTokenProvider.createToken(authentication);
-
-		otpServiceToRepo.deleteByEmail(email);
-
-		return token;
+		// the OTP is consumed by the OtpAuthenticationProvider
+		return jwtTokenProvider.createToken(authentication);
 	}
 
 	/**
@@ -169,6 +232,7 @@ public class UserService implements UserDetailsService {
 	 * @return the user by id
 	 */
 	@RolesAllowed({ "ROLE_USER" })
+	@Timed("user.service")
 	public Optional<User> getUserById(@NonNull Long userId) {
 		log.debug("getUserById] - Get User By Id: {}", userId);
 		return userServiceToRepo.getUserById(userId);
@@ -180,6 +244,7 @@ public class UserService implements UserDetailsService {
 	 * @param userId the user id
 	 */
 	@RolesAllowed({ "ROLE_USER" })
+	@Timed("user.service")
 	public void deleteUserById(@NonNull Long userId) {
 		log.debug("deleteUserById] - Delete User By Id: {}", userId);
 		userServiceToRepo.deleteUserById(userId);
@@ -193,6 +258,7 @@ public class UserService implements UserDetailsService {
 	 * @return the optional
 	 */
 	@RolesAllowed({ "ROLE_USER" })
+	@Timed("user.service")
 	public Optional<User> updateUserById(@NonNull Long userId, @NonNull UserUpdateRequest userUpdateRequest) {
 
 		log.debug("updateUserById] - Update User By Id: {} with information: {}", userId, userUpdateRequest);
@@ -325,6 +391,7 @@ public class UserService implements UserDetailsService {
 	 * @return the optional
 	 */
 	@RolesAllowed({ "ROLE_USER" })
+	@Timed("user.service")
 	public Optional<User> registerNewUser(@NonNull UserCreateRequest newUser) {
 		log.debug("registerNewUser] - Creqte User with information: {}", newUser);
 
@@ -348,6 +415,98 @@ public class UserService implements UserDetailsService {
 		return userServiceToRepo.saveUser(user);
 	}
 
+	/**
+	 * Import users. Every request is validated as by the registration, the valid
+	 * users are saved by batches in one transaction each. If the batch can not be
+	 * saved, its users are saved one by one, so only the users that break the
+	 * constraints fail. The result of each request is passed to the consumer as
+	 * soon as it is known, so neither requests nor results are kept in memory.
+	 * The results of the valid requests follow the results of the invalid ones
+	 * read before the batch is saved. The import stops at the request that can
+	 * not be read.
+	 *
+	 * @param requests the requests, read as they are iterated
+	 * @param results  the consumer of the results
+	 */
+	@RolesAllowed({ "ROLE_USER" })
+	@Timed("user.service")
+	public void importUsers(@NonNull Iterator<UserCreateRequest> requests,
+			@NonNull Consumer<UserImportResponse> results) {
+		log.debug("importUsers] - Import Users by batches of {}", importBatchSize);
+
+		List<User> batch = new ArrayList<>(importBatchSize);
+		List<Long> records = new ArrayList<>(importBatchSize);
+		long record = 0;
+		while (true) {
+			UserCreateRequest newUser;
+			try {
+				if (!requests.hasNext()) {
+					break;
+				}
+				newUser = requests.next();
+			} catch (RuntimeException e) {
+				log.info("importUsers] - Import is stopped, record {} can not be read: {}", record + 1,
+						e.getMessage());
+				results.accept(UserImportResponse.failed(record + 1, "The record can not be read."));
+				break;
+			}
+			record++;
+
+			if (newUser == null) {
+				results.accept(UserImportResponse.failed(record, "The record is empty."));
+				continue;
+			}
+			trimSpacesCreatedUser(newUser);
+			AuditResponse response = checkUserCreateRequest(newUser);
+			if (response.isInvalid()) {
+				results.accept(UserImportResponse.invalid(record, response.getMessages().asMap()));
+				continue;
+			}
+
+			User user = new User();
+			fillUserCreatedProperties(newUser, user);
+			batch.add(user);
+			records.add(record);
+			if (batch.size() >= importBatchSize) {
+				saveImportBatch(batch, records, results);
+			}
+		}
+		saveImportBatch(batch, records, results);
+	}
+
+	/**
+	 * Save the batch of imported users and clear it.
+	 *
+	 * @param batch   the users
+	 * @param records the record numbers of the users
+	 * @param results the consumer of the results
+	 */
+	private void saveImportBatch(List<User> batch, List<Long> records, Consumer<UserImportResponse> results) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			List<User> saved = userServiceToRepo.saveUsers(batch);
+			for (int i = 0; i < saved.size(); i++) {
+				results.accept(UserImportResponse.created(records.get(i), saved.get(i).getId()));
+			}
+		} catch (DataIntegrityViolationException e) {
+			log.debug("saveImportBatch] - Batch of {} Users is not saved, save them one by one", batch.size());
+			for (int i = 0; i < batch.size(); i++) {
+				User user = batch.get(i);
+				user.setId(null); // the id was allocated in the rolled back transaction
+				try {
+					results.accept(UserImportResponse.created(records.get(i),
+							userServiceToRepo.saveUser(user).get().getId()));
+				} catch (DataIntegrityViolationException ex) {
+					results.accept(UserImportResponse.failed(records.get(i), "User with this email already exists."));
+				}
+			}
+		}
+		batch.clear();
+		records.clear();
+	}
+
 	/**
 	 * Fill user created properties.
 	 *
@@ -357,7 +516,7 @@ public class UserService implements UserDetailsService {
 	private void fillUserCreatedProperties(@NonNull UserCreateRequest newUser, @NonNull User user) {
 		user.setName(newUser.getName());
 		user.setLastName(newUser.getLastName());
-		user.setEmail(newUser.getEmail());
+		user.setEmail(EmailNormalizer.normalize(newUser.getEmail()));
 		user.setBirthDay(LocalDate.parse(newUser.getBirthDay()));
 		user.setMaritalStatus(MaritalStatus.valueOf(newUser.getMaritalStatus()));
 	}
@@ -368,7 +527,8 @@ public class UserService implements UserDetailsService {
 	 * @param newUser the new user
 	 * @return the audit response
 	 */
-	private AuditResponse checkUserCreateRequest(@NonNull UserCreateRequest newUser) {
+	@VisibleForTesting
+	AuditResponse checkUserCreateRequest(@NonNull UserCreateRequest newUser) {
 		AuditResponse response = new AuditResponse();
 
 		response.setValid(true);
@@ -393,7 +553,10 @@ public class UserService implements UserDetailsService {
 			response.addMessage("lastName", "Field LastName is too long.");
 		}
 
-		if (newUser.getMaritalStatus() != null) {
+		if (newUser.getMaritalStatus() == null) {
+			response.setValid(false);
+			response.addMessage("maritalStatus", "Field MaritalStatus is required.");
+		} else {
 			try {
 				MaritalStatus s = MaritalStatus.valueOf(newUser.getMaritalStatus());
 			} catch (Exception e) {
@@ -439,13 +602,37 @@ public class UserService implements UserDetailsService {
 	}
 
 	/**
-	 * Gets the all users.
+	 * Gets the page of users ordered by id. One extra user is read to know whether
+	 * the next page exists.
+	 *
+	 * @param afterId the id after which the page starts, or null for the first page
+	 * @param size    the max count of users in the page, or null for default size
+	 * @return the page of users with the cursor of the next page
+	 */
+	@RolesAllowed({ "ROLE_USER" })
+	@Timed("user.service")
+	public UsersPageResponse getUsersPage(Long afterId, Integer size) {
+		log.debug("getUsersPage] - Get {} Users after Id: {}", size, afterId);
+		int pageSize = size == null || size < 1 ? defaultPageSize : Math.min(size, maxPageSize);
+		List<User> users = userServiceToRepo.getUsersAfter(afterId == null ? Long.MIN_VALUE : afterId,
+				pageSize + 1);
+		if (users.size() <= pageSize) {
+			return new UsersPageResponse(users, null);
+		}
+		users = users.subList(0, pageSize);
+		return new UsersPageResponse(users, users.get(pageSize - 1).getId());
+	}
+
+	/**
+	 * Performs the action for each user in order of id without keeping the users
+	 * in memory.
 	 *
-	 * @return the all users
+	 * @param action the action
 	 */
 	@RolesAllowed({ "ROLE_USER" })
-	public List<User> getAllUsers() {
-		log.debug("getAllUsers] - Get all Users");
-		return userServiceToRepo.getAllUsers();
+	@Timed("user.service")
+	public void forEachUser(@NonNull Consumer<User> action) {
+		log.debug("forEachUser] - Stream all Users");
+		userServiceToRepo.forEachUser(action);
 	}
 }
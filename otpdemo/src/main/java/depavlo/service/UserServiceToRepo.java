@@ -1,7 +1,9 @@
 package depavlo.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.springframework.stereotype.Service;
 
@@ -18,13 +20,31 @@ import lombok.NonNull;
 public interface UserServiceToRepo {
 
 	/**
-	 * Load user by username.
+	 * Load user by username. The result may be served from the users cache that is
+	 * invalidated when the user is saved or deleted.
 	 *
 	 * @param username the String
 	 * @return the optional
 	 */
 	Optional<User> loadUserByUsername(@NonNull String username);
 
+	/**
+	 * Checks if the user with given username exists. The answer may be served from
+	 * the users cache that is invalidated when the user is saved or deleted.
+	 *
+	 * @param username the String
+	 * @return true, if the user exists
+	 */
+	boolean isUserExists(@NonNull String username);
+
+	/**
+	 * Load the users by usernames with one query. The users cache is not used.
+	 *
+	 * @param usernames the usernames
+	 * @return the found users
+	 */
+	List<User> loadUsersByUsernames(@NonNull Collection<String> usernames);
+
 	/**
 	 * Gets the user by id.
 	 *
@@ -49,10 +69,29 @@ public interface UserServiceToRepo {
 	Optional<User> saveUser(@NonNull User user);
 
 	/**
-	 * Gets the list of all users.
+	 * Save the users in one transaction. The users are inserted by JDBC batches,
+	 * if any user can not be saved none of them is saved.
+	 *
+	 * @param users the users
+	 * @return the saved users
+	 */
+	List<User> saveUsers(@NonNull List<User> users);
+
+	/**
+	 * Gets the page of users with id greater than given one, ordered by id.
+	 *
+	 * @param afterId the id after which the page starts
+	 * @param size    the max count of users in the page
+	 * @return the users of the page
+	 */
+	List<User> getUsersAfter(@NonNull Long afterId, int size);
+
+	/**
+	 * Performs the action for each user in order of id. The users are read from
+	 * the database by portions and are not kept in memory.
 	 *
-	 * @return the all users
+	 * @param action the action
 	 */
-	List<User> getAllUsers();
+	void forEachUser(@NonNull Consumer<User> action);
 
 }
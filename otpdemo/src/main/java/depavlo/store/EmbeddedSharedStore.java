@@ -0,0 +1,293 @@
+package depavlo.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class EmbeddedSharedStore that keeps the shared state in the memory of the
+ * process. The state is kept by the hub and the stores of the same hub share
+ * it, so the application contexts started in one JVM with the same
+ * app.store.embedded.hub behave as the instances of one cluster. The messages
+ * are delivered to the listeners by the thread that publishes them. The hub is
+ * dropped with its state when the last store of it is destroyed. It is enabled
+ * by the property app.store.type=embedded.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.store.type", havingValue = "embedded", matchIfMissing = true)
+public class EmbeddedSharedStore implements SharedStore {
+
+	/** The hubs by name. */
+	private static final Map<String, Hub> HUBS = new ConcurrentHashMap<>();
+
+	/** The count of sets after which the expired entries are removed. */
+	private static final int PURGE_EVERY = 1024;
+
+	/** The max count of counters of the hub. */
+	private static final int MAX_COUNTERS = 16;
+
+	/** The hub name. */
+	@Value("${app.store.embedded.hub}")
+	private String hubName;
+
+	/** The hub. */
+	private Hub hub;
+
+	/** The listeners subscribed by this store. */
+	private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Joins the hub.
+	 */
+	@PostConstruct
+	private void init() {
+		log.info("init] - Use embedded shared store of hub '{}'", hubName);
+		hub = HUBS.compute(hubName, (name, joined) -> {
+			Hub result = joined == null ? new Hub() : joined;
+			result.stores++;
+			return result;
+		});
+	}
+
+	/**
+	 * Unsubscribes the listeners of this store from the hub and drops the hub
+	 * that has no stores left.
+	 */
+	@PreDestroy
+	private void destroy() {
+		subscriptions.forEach(subscription -> hub.listeners(subscription.channel).remove(subscription.listener));
+		HUBS.computeIfPresent(hubName, (name, joined) -> --joined.stores == 0 ? null : joined);
+	}
+
+	/**
+	 * Gets the value.
+	 *
+	 * @param key the key
+	 * @return the value or null if the key is absent or expired
+	 */
+	@Override
+	public String get(@NonNull String key) {
+		Entry entry = hub.entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (entry.isExpired(System.currentTimeMillis())) {
+			hub.entries.remove(key, entry);
+			return null;
+		}
+		return entry.value;
+	}
+
+	/**
+	 * Gets the values of the keys.
+	 *
+	 * @param keys the keys
+	 * @return the values in the order of the keys
+	 */
+	@Override
+	public List<String> getAll(@NonNull List<String> keys) {
+		List<String> values = new ArrayList<>(keys.size());
+		keys.forEach(key -> values.add(get(key)));
+		return values;
+	}
+
+	/**
+	 * Sets the value that expires after the time to live.
+	 *
+	 * @param key     the key
+	 * @param value   the value
+	 * @param ttlMsec the time to live in milliseconds
+	 */
+	@Override
+	public void set(@NonNull String key, @NonNull String value, long ttlMsec) {
+		long now = System.currentTimeMillis();
+		hub.entries.put(key, new Entry(value, now + ttlMsec));
+		if (hub.sets.incrementAndGet() % PURGE_EVERY == 0) {
+			hub.entries.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+		}
+	}
+
+	/**
+	 * Deletes the key.
+	 *
+	 * @param key the key
+	 * @return true, if the key was deleted by this call
+	 */
+	@Override
+	public boolean delete(@NonNull String key) {
+		Entry entry = hub.entries.remove(key);
+		return entry != null && !entry.isExpired(System.currentTimeMillis());
+	}
+
+	/**
+	 * Deletes the key only if it still has the value.
+	 *
+	 * @param key   the key
+	 * @param value the expected value
+	 * @return true, if the key was deleted by this call
+	 */
+	@Override
+	public boolean deleteIfEquals(@NonNull String key, @NonNull String value) {
+		Entry entry = hub.entries.get(key);
+		return entry != null && entry.value.equals(value) && hub.entries.remove(key, entry)
+				&& !entry.isExpired(System.currentTimeMillis());
+	}
+
+	/**
+	 * Increments the counter. The counters do not expire, so the hub keeps only
+	 * the few counters of the sequences.
+	 *
+	 * @param key the key of the counter
+	 * @return the incremented value
+	 * @throws IllegalStateException if the hub already keeps the max count of
+	 *                               counters
+	 */
+	@Override
+	public long increment(@NonNull String key) {
+		AtomicLong counter = hub.counters.get(key);
+		if (counter == null) {
+			counter = hub.counters.compute(key, (k, created) -> {
+				if (created == null && hub.counters.size() >= MAX_COUNTERS) {
+					throw new IllegalStateException("Too many counters, the counter '" + k + "' is not created");
+				}
+				return created == null ? new AtomicLong() : created;
+			});
+		}
+		return counter.incrementAndGet();
+	}
+
+	/**
+	 * Publishes the message to the listeners of the channel of all stores of the
+	 * hub.
+	 *
+	 * @param channel the channel
+	 * @param message the message
+	 */
+	@Override
+	public void publish(@NonNull String channel, @NonNull String message) {
+		for (Listener listener : hub.listeners(channel)) {
+			try {
+				listener.onMessage(message);
+			} catch (RuntimeException e) {
+				log.warn("publish] - Listener of '{}' failed: {}", channel, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Subscribes the listener to the channel.
+	 *
+	 * @param channel  the channel
+	 * @param listener the listener
+	 */
+	@Override
+	public void subscribe(@NonNull String channel, @NonNull Listener listener) {
+		subscriptions.add(new Subscription(channel, listener));
+		hub.listeners(channel).add(listener);
+	}
+
+	/**
+	 * The Class Hub that is the state shared by the stores.
+	 */
+	private static class Hub {
+
+		/** The entries by key. */
+		private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+		/** The counters by key. */
+		private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+		/** The listeners by channel. */
+		private final Map<String, List<Listener>> channels = new ConcurrentHashMap<>();
+
+		/** The count of sets. */
+		private final AtomicInteger sets = new AtomicInteger();
+
+		/** The count of the stores that joined the hub, changed only by HUBS. */
+		private int stores;
+
+		/**
+		 * Gets the listeners of the channel.
+		 *
+		 * @param channel the channel
+		 * @return the listeners
+		 */
+		List<Listener> listeners(String channel) {
+			return channels.computeIfAbsent(channel, name -> new CopyOnWriteArrayList<>());
+		}
+	}
+
+	/**
+	 * The Class Entry that is the value with its expiration.
+	 */
+	private static class Entry {
+
+		/** The value. */
+		private final String value;
+
+		/** The expiration time in milliseconds. */
+		private final long expireAt;
+
+		/**
+		 * Instantiates a new entry.
+		 *
+		 * @param value    the value
+		 * @param expireAt the expiration time in milliseconds
+		 */
+		Entry(String value, long expireAt) {
+			this.value = value;
+			this.expireAt = expireAt;
+		}
+
+		/**
+		 * Checks if the entry is expired.
+		 *
+		 * @param now the current time in milliseconds
+		 * @return true, if expired
+		 */
+		boolean isExpired(long now) {
+			return expireAt <= now;
+		}
+	}
+
+	/**
+	 * The Class Subscription of the listener to the channel.
+	 */
+	private static class Subscription {
+
+		/** The channel. */
+		private final String channel;
+
+		/** The listener. */
+		private final Listener listener;
+
+		/**
+		 * Instantiates a new subscription.
+		 *
+		 * @param channel  the channel
+		 * @param listener the listener
+		 */
+		Subscription(String channel, Listener listener) {
+			this.channel = channel;
+			this.listener = listener;
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+package depavlo.store;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class NearCache that keeps the values of the shared store in the memory
+ * of the instance. Every instance publishes the key it changes to the channel
+ * and the near cache of every instance drops it. The absent value is cached as
+ * well, so the repeated lookups of the missing key do not reach the store. The
+ * entries also expire after the time to live, which bounds the staleness if the
+ * message is lost. While the subscription is lost nothing is cached, and the
+ * cache is cleared when it is restored.
+ *
+ * @param <V> the type of value
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+public class NearCache<V> {
+
+	/** The shared store. */
+	private final SharedStore sharedStore;
+
+	/** The channel of invalidations. */
+	private final String channel;
+
+	/** The cached values, the empty optional is the cached absence. */
+	private final Cache<String, Optional<V>> cache;
+
+	/**
+	 * The count of invalidations. The value loaded while it changed may be stale,
+	 * so it is returned but not cached.
+	 */
+	private final AtomicLong generation = new AtomicLong();
+
+	/**
+	 * Whether the invalidations are delivered. The values loaded while the
+	 * subscription is lost are returned but not cached.
+	 */
+	private volatile boolean subscribed = true;
+
+	/**
+	 * Instantiates a new near cache and subscribes it to the channel.
+	 *
+	 * @param sharedStore   the shared store
+	 * @param channel       the channel of invalidations
+	 * @param maxSize       the max count of cached keys
+	 * @param ttlMsec       the time to live of the entry in milliseconds
+	 * @param meterRegistry the meter registry
+	 */
+	public NearCache(@NonNull SharedStore sharedStore, @NonNull String channel, long maxSize, long ttlMsec,
+			@NonNull MeterRegistry meterRegistry) {
+		log.info("NearCache] - Create near cache of '{}' with max size {}", channel, maxSize);
+		this.sharedStore = sharedStore;
+		this.channel = channel;
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maxSize)
+				.expireAfterWrite(ttlMsec, TimeUnit.MILLISECONDS)
+				.recordStats()
+				.build();
+		CaffeineCacheMetrics.monitor(meterRegistry, cache, "near." + channel);
+		sharedStore.subscribe(channel, new SharedStore.Listener() {
+
+			@Override
+			public void onMessage(String key) {
+				drop(key);
+			}
+
+			@Override
+			public void onDisconnected() {
+				subscribed = false;
+				dropAll();
+			}
+
+			@Override
+			public void onReset() {
+				dropAll();
+				subscribed = true;
+			}
+		});
+	}
+
+	/**
+	 * Gets the value from the cache or loads it from the shared store.
+	 *
+	 * @param key    the key
+	 * @param loader the loader of the value, returns null if it is absent
+	 * @return the value or empty if it is absent
+	 */
+	public Optional<V> get(@NonNull String key, @NonNull Function<String, V> loader) {
+		Optional<V> cached = cache.getIfPresent(key);
+		if (cached != null) {
+			return cached;
+		}
+		long loadedAt = generation.get();
+		Optional<V> loaded = Optional.ofNullable(loader.apply(key));
+		if (subscribed && generation.get() == loadedAt) {
+			cache.put(key, loaded);
+		}
+		return loaded;
+	}
+
+	/**
+	 * Drops the key from the near cache of every instance. It must be called after
+	 * the key is changed in the shared store.
+	 *
+	 * @param key the key
+	 */
+	public void invalidate(@NonNull String key) {
+		drop(key);
+		sharedStore.publish(channel, key);
+	}
+
+	/**
+	 * Drops the key from this near cache.
+	 *
+	 * @param key the key
+	 */
+	private void drop(String key) {
+		generation.incrementAndGet();
+		cache.invalidate(key);
+	}
+
+	/**
+	 * Drops all keys from this near cache.
+	 */
+	private void dropAll() {
+		generation.incrementAndGet();
+		cache.invalidateAll();
+	}
+
+}
@@ -0,0 +1,366 @@
+package depavlo.store;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import depavlo.util.exception.SharedStoreException;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.RedisException;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.SocketOptions;
+import io.lettuce.core.TimeoutOptions;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import io.lettuce.core.resource.Delay;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The Class RedisSharedStore that keeps the shared state in the Redis server
+ * through the Lettuce client. The commands share one connection, the messages
+ * are received through the connection of the subscriber. Both connections are
+ * opened again by the client after they are lost, and the client subscribes
+ * the channels again. The messages published meanwhile are lost, so the
+ * listeners are told when the subscription is lost and reset after it is
+ * restored. It is enabled by the property app.store.type=redis.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.store.type", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisSharedStore implements SharedStore {
+
+	/** The script that deletes the key only if it has the value. */
+	private static final String DELETE_IF_EQUALS_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] "
+			+ "then return redis.call('del', KEYS[1]) else return 0 end";
+
+	/** The meter registry. */
+	private final MeterRegistry meterRegistry;
+
+	/** The server host. */
+	@Value("${app.store.redis.host}")
+	private String host;
+
+	/** The server port. */
+	@Value("${app.store.redis.port}")
+	private Integer port;
+
+	/** The password, blank if the server does not require it. */
+	@Value("${app.store.redis.password}")
+	private String password;
+
+	/** The database index. */
+	@Value("${app.store.redis.database}")
+	private Integer database;
+
+	/** The timeout of connect and of the command. */
+	@Value("${app.store.redis.timeoutMsec}")
+	private Integer timeoutMsec;
+
+	/** The pause before the lost connection is opened again. */
+	@Value("${app.store.redis.reconnectMsec}")
+	private Long reconnectMsec;
+
+	/** The listeners by channel. */
+	private final Map<String, List<Listener>> channels = new ConcurrentHashMap<>();
+
+	/** The channels that were subscribed at least once. */
+	private final Set<String> subscribedChannels = ConcurrentHashMap.newKeySet();
+
+	/** The resources of the client. */
+	private ClientResources clientResources;
+
+	/** The client. */
+	private RedisClient client;
+
+	/** The connection of the commands. */
+	private StatefulRedisConnection<String, String> connection;
+
+	/** The commands. */
+	private RedisCommands<String, String> commands;
+
+	/** The connection of the subscriber. */
+	private StatefulRedisPubSubConnection<String, String> subscriber;
+
+	/**
+	 * Opens the connections of the commands and of the subscriber.
+	 *
+	 * @throws SharedStoreException if the server is not available
+	 */
+	@PostConstruct
+	private void start() {
+		log.info("start] - Use Redis shared store {}:{}/{}", host, port, database);
+		Duration timeout = Duration.ofMillis(timeoutMsec);
+		RedisURI.Builder uri = RedisURI.builder()
+				.withHost(host)
+				.withPort(port)
+				.withDatabase(database)
+				.withTimeout(timeout);
+		if (StringUtils.isNotBlank(password)) {
+			uri.withPassword((CharSequence) password);
+		}
+		clientResources = DefaultClientResources.builder()
+				.reconnectDelay(Delay.constant(Duration.ofMillis(reconnectMsec)))
+				.build();
+		client = RedisClient.create(clientResources, uri.build());
+		client.setOptions(ClientOptions.builder()
+				.autoReconnect(true)
+				.disconnectedBehavior(ClientOptions.DisconnectedBehavior.REJECT_COMMANDS)
+				.socketOptions(SocketOptions.builder().connectTimeout(timeout).build())
+				.timeoutOptions(TimeoutOptions.enabled(timeout))
+				.build());
+		client.addListener(new SubscriberStateListener());
+		try {
+			connection = client.connect();
+			commands = connection.sync();
+			subscriber = client.connectPubSub();
+		} catch (RedisException e) {
+			stop();
+			throw new SharedStoreException("Shared store is not available: " + e.getMessage(), e);
+		}
+		subscriber.addListener(new RedisPubSubAdapter<>() {
+
+			@Override
+			public void message(String channel, String message) {
+				dispatch(channel, message);
+			}
+
+			@Override
+			public void subscribed(String channel, long count) {
+				if (!subscribedChannels.add(channel)) {
+					// the client subscribed the channel again after the connection was lost
+					reset(channel);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Closes the connections and shuts down the client.
+	 */
+	@PreDestroy
+	private void stop() {
+		if (subscriber != null) {
+			subscriber.close();
+		}
+		if (connection != null) {
+			connection.close();
+		}
+		client.shutdown();
+		clientResources.shutdown();
+	}
+
+	/**
+	 * Gets the value.
+	 *
+	 * @param key the key
+	 * @return the value or null if the key is absent or expired
+	 */
+	@Override
+	@Timed("shared.store")
+	public String get(@NonNull String key) {
+		return execute(() -> commands.get(key));
+	}
+
+	/**
+	 * Gets the values of the keys with one MGET.
+	 *
+	 * @param keys the keys
+	 * @return the values in the order of the keys
+	 */
+	@Override
+	@Timed("shared.store")
+	public List<String> getAll(@NonNull List<String> keys) {
+		if (keys.isEmpty()) {
+			return List.of();
+		}
+		List<KeyValue<String, String>> values = execute(() -> commands.mget(keys.toArray(new String[0])));
+		List<String> result = new ArrayList<>(values.size());
+		for (KeyValue<String, String> value : values) {
+			result.add(value.getValueOrElse(null));
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the value that expires after the time to live.
+	 *
+	 * @param key     the key
+	 * @param value   the value
+	 * @param ttlMsec the time to live in milliseconds
+	 */
+	@Override
+	@Timed("shared.store")
+	public void set(@NonNull String key, @NonNull String value, long ttlMsec) {
+		execute(() -> commands.set(key, value, SetArgs.Builder.px(ttlMsec)));
+	}
+
+	/**
+	 * Deletes the key.
+	 *
+	 * @param key the key
+	 * @return true, if the key was deleted by this call
+	 */
+	@Override
+	@Timed("shared.store")
+	public boolean delete(@NonNull String key) {
+		return execute(() -> commands.del(key)) > 0;
+	}
+
+	/**
+	 * Deletes the key only if it still has the value. The check and the delete
+	 * are done by the script, so they are atomic on the server.
+	 *
+	 * @param key   the key
+	 * @param value the expected value
+	 * @return true, if the key was deleted by this call
+	 */
+	@Override
+	@Timed("shared.store")
+	public boolean deleteIfEquals(@NonNull String key, @NonNull String value) {
+		Long deleted = execute(
+				() -> commands.eval(DELETE_IF_EQUALS_SCRIPT, ScriptOutputType.INTEGER, new String[] { key }, value));
+		return deleted > 0;
+	}
+
+	/**
+	 * Increments the counter.
+	 *
+	 * @param key the key of the counter
+	 * @return the incremented value
+	 */
+	@Override
+	@Timed("shared.store")
+	public long increment(@NonNull String key) {
+		return execute(() -> commands.incr(key));
+	}
+
+	/**
+	 * Publishes the message to the listeners of the channel of all instances.
+	 *
+	 * @param channel the channel
+	 * @param message the message
+	 */
+	@Override
+	@Timed("shared.store")
+	public void publish(@NonNull String channel, @NonNull String message) {
+		execute(() -> commands.publish(channel, message));
+	}
+
+	/**
+	 * Subscribes the listener to the channel. The new channel is subscribed at
+	 * once, the client subscribes it again after the connection is restored.
+	 *
+	 * @param channel  the channel
+	 * @param listener the listener
+	 * @throws SharedStoreException if the server is not available
+	 */
+	@Override
+	public void subscribe(@NonNull String channel, @NonNull Listener listener) {
+		boolean[] created = { false };
+		channels.computeIfAbsent(channel, name -> {
+			created[0] = true;
+			return new CopyOnWriteArrayList<>();
+		}).add(listener);
+		if (created[0]) {
+			execute(() -> {
+				subscriber.sync().subscribe(channel);
+				return null;
+			});
+		}
+	}
+
+	/**
+	 * Executes the command.
+	 *
+	 * @param <T>     the type of reply
+	 * @param command the command
+	 * @return the reply
+	 * @throws SharedStoreException if the server is not available or rejects the
+	 *                              command
+	 */
+	private <T> T execute(Supplier<T> command) {
+		try {
+			return command.get();
+		} catch (RedisException e) {
+			throw new SharedStoreException("Shared store failed: " + e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Dispatches the message to the listeners of the channel.
+	 *
+	 * @param channel the channel
+	 * @param message the message
+	 */
+	private void dispatch(String channel, String message) {
+		for (Listener listener : channels.getOrDefault(channel, List.of())) {
+			try {
+				listener.onMessage(message);
+			} catch (RuntimeException e) {
+				log.warn("dispatch] - Listener of '{}' failed: {}", channel, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Resets the listeners of the channel.
+	 *
+	 * @param channel the channel
+	 */
+	private void reset(String channel) {
+		log.info("reset] - Subscription of '{}' is restored, reset the listeners", channel);
+		meterRegistry.counter("shared.store.reset").increment();
+		channels.getOrDefault(channel, List.of()).forEach(Listener::onReset);
+	}
+
+	/**
+	 * The listener of the connection state that tells the listeners of all
+	 * channels that the subscription is lost.
+	 */
+	private class SubscriberStateListener implements RedisConnectionStateListener {
+
+		@Override
+		public void onRedisDisconnected(RedisChannelHandler<?, ?> handler) {
+			if (handler == subscriber) {
+				log.warn("onRedisDisconnected] - Subscriber lost connection to {}:{}", host, port);
+				channels.values().forEach(listeners -> listeners.forEach(Listener::onDisconnected));
+			}
+		}
+
+		@Override
+		public void onRedisExceptionCaught(RedisChannelHandler<?, ?> handler, Throwable cause) {
+			log.debug("onRedisExceptionCaught] - Connection to {}:{} failed: {}", host, port, cause.getMessage());
+		}
+	}
+
+}
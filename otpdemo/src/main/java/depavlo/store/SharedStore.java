@@ -0,0 +1,113 @@
+package depavlo.store;
+
+import java.util.List;
+
+import lombok.NonNull;
+
+/**
+ * The Interface SharedStore is description of the required functions of the
+ * store that is shared by all instances of the application. It keeps the
+ * string values with the time to live and delivers the messages published to
+ * the channel to the listeners of every instance.
+ *
+ * @author Pavlo Degtyaryev
+ */
+public interface SharedStore {
+
+	/**
+	 * Gets the value.
+	 *
+	 * @param key the key
+	 * @return the value or null if the key is absent or expired
+	 */
+	String get(@NonNull String key);
+
+	/**
+	 * Gets the values of the keys with one call.
+	 *
+	 * @param keys the keys
+	 * @return the values in the order of the keys, null for every absent key
+	 */
+	List<String> getAll(@NonNull List<String> keys);
+
+	/**
+	 * Sets the value that expires after the time to live.
+	 *
+	 * @param key     the key
+	 * @param value   the value
+	 * @param ttlMsec the time to live in milliseconds, must be positive
+	 */
+	void set(@NonNull String key, @NonNull String value, long ttlMsec);
+
+	/**
+	 * Deletes the key.
+	 *
+	 * @param key the key
+	 * @return true, if the key was deleted by this call
+	 */
+	boolean delete(@NonNull String key);
+
+	/**
+	 * Deletes the key only if it still has the value. The check and the delete
+	 * are one atomic step, so only one of the competing callers deletes it.
+	 *
+	 * @param key   the key
+	 * @param value the expected value
+	 * @return true, if the key was deleted by this call
+	 */
+	boolean deleteIfEquals(@NonNull String key, @NonNull String value);
+
+	/**
+	 * Increments the counter. The counter does not expire, so the key is one of
+	 * the few fixed keys of the sequences, not a key per user or per request.
+	 *
+	 * @param key the key of the counter
+	 * @return the incremented value
+	 */
+	long increment(@NonNull String key);
+
+	/**
+	 * Publishes the message to the listeners of the channel of all instances.
+	 *
+	 * @param channel the channel
+	 * @param message the message
+	 */
+	void publish(@NonNull String channel, @NonNull String message);
+
+	/**
+	 * Subscribes the listener to the channel.
+	 *
+	 * @param channel  the channel
+	 * @param listener the listener
+	 */
+	void subscribe(@NonNull String channel, @NonNull Listener listener);
+
+	/**
+	 * The Interface Listener of the messages of the channel.
+	 */
+	interface Listener {
+
+		/**
+		 * Handles the message.
+		 *
+		 * @param message the message
+		 */
+		void onMessage(String message);
+
+		/**
+		 * Handles the loss of the connection of the subscription. The messages are
+		 * not delivered until the subscription is restored.
+		 */
+		default void onDisconnected() {
+		}
+
+		/**
+		 * Handles the restored subscription. The messages published while the
+		 * subscription was lost are not delivered, so everything derived from them
+		 * must be dropped.
+		 */
+		default void onReset() {
+		}
+	}
+
+}
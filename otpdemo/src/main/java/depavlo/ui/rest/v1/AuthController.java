@@ -1,5 +1,7 @@
 package depavlo.ui.rest.v1;
 
+import javax.annotation.security.RolesAllowed;
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -8,6 +10,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -16,11 +20,18 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
+import depavlo.security.OtpRateLimiter;
+import depavlo.security.jwt.JwtTokenProvider;
+import depavlo.security.jwt.TokenRevocationStore;
 import depavlo.service.UserService;
 import depavlo.ui.rest.v1.model.request.LoginRequest;
+import depavlo.ui.rest.v1.model.request.OTPBatchRequest;
 import depavlo.ui.rest.v1.model.request.OTPRequest;
 import depavlo.ui.rest.v1.model.response.InfoResponse;
+import depavlo.ui.rest.v1.model.response.OtpBatchResponse;
 import depavlo.util.exception.OtpMailException;
+import depavlo.util.exception.RateLimitExceededException;
+import depavlo.util.exception.SharedStoreException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,6 +48,15 @@ public class AuthController {
 	/** The users service. */
 	private final UserService userService;
 
+	/** The otp rate limiter. */
+	private final OtpRateLimiter otpRateLimiter;
+
+	/** The jwt token provider. */
+	private final JwtTokenProvider jwtTokenProvider;
+
+	/** The store of revoked tokens. */
+	private final TokenRevocationStore tokenRevocationStore;
+
 	/** The Bearer token prefix. */
 	@Value("${app.auth.tokenPrefix}")
 	private String tokenPrefix;
@@ -45,36 +65,125 @@ public class AuthController {
 	 * Authenticate user.
 	 *
 	 * @param loginRequest the LoginRequest
+	 * @param request      the HttpServletRequest
 	 * @return the response entity
 	 */
 	@PostMapping(value = "/login", consumes = { MediaType.APPLICATION_JSON_VALUE,
 			MediaType.APPLICATION_XML_VALUE }, produces = { MediaType.APPLICATION_JSON_VALUE,
 					MediaType.APPLICATION_XML_VALUE })
-	public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+	public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+			HttpServletRequest request) {
 
 		log.debug("authenticateUser] - Perform authenticate user with loginRequest: {}", loginRequest);
 
+		otpRateLimiter.checkLogin(loginRequest.getEmail(), request.getRemoteAddr());
+
 		String token = userService.createBearerToken(loginRequest.getEmail(), loginRequest.getPassword());
 
 		return ResponseEntity.status(HttpStatus.OK).body(tokenPrefix + token);
 	}
 
 	/**
-	 * One-time password request
+	 * Logout. The bearer token of the request is revoked, so it is rejected by
+	 * every instance of the application. The token without id, issued before the
+	 * tokens got ids, can not be revoked and is answered with 400.
+	 *
+	 * @param request the HttpServletRequest
+	 * @return the response entity
+	 */
+	@PostMapping(value = "/logout", produces = { MediaType.APPLICATION_JSON_VALUE,
+			MediaType.APPLICATION_XML_VALUE })
+	public ResponseEntity<?> logout(HttpServletRequest request) {
+
+		log.debug("logout] - Perform logout");
+
+		if (!tokenRevocationStore.revoke(jwtTokenProvider.verifyToken(jwtTokenProvider.resolveToken(request)))) {
+			InfoResponse infoResponse = new InfoResponse(HttpStatus.BAD_REQUEST, "Token can not be revoked",
+					"The token has no id. Please log in again to get the token that can be revoked.");
+
+			String headers = request.getHeader(HttpHeaders.ACCEPT);
+
+			MediaType mt;
+			if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+				mt = MediaType.APPLICATION_JSON;
+			} else {
+				mt = MediaType.APPLICATION_XML;
+			}
+			return ResponseEntity.status(infoResponse.getStatus()).contentType(mt).body(infoResponse);
+		}
+
+		return ResponseEntity.status(HttpStatus.OK).body("Logged out.");
+	}
+
+	/**
+	 * One-time password request. The request is accepted without waiting for the
+	 * OTP to be issued, the OTP is sent by email if the user exists.
 	 *
 	 * @param otpRequest the OTPRequest
+	 * @param request    the HttpServletRequest
 	 * @return the response entity
 	 */
 	@PostMapping(value = "/request-otp", consumes = { MediaType.APPLICATION_JSON_VALUE,
 			MediaType.APPLICATION_XML_VALUE }, produces = { MediaType.APPLICATION_JSON_VALUE,
 					MediaType.APPLICATION_XML_VALUE })
-	public ResponseEntity<?> otpRequest(@Valid @RequestBody OTPRequest otpRequest) {
+	public ResponseEntity<?> otpRequest(@Valid @RequestBody OTPRequest otpRequest, HttpServletRequest request) {
 
 		log.debug("otpRequest] - Perform request one time password with otpRequest: {}", otpRequest);
 
+		otpRateLimiter.checkOtpRequest(otpRequest.getEmail(), request.getRemoteAddr());
+
 		userService.requestOtp(otpRequest.getEmail());
 
-		return ResponseEntity.status(HttpStatus.OK).body("One Time Password was send by email.");
+		return ResponseEntity.status(HttpStatus.ACCEPTED).body("One Time Password will be send by email.");
+	}
+
+	/**
+	 * One-time password request for the group of users. It is available only to
+	 * the authenticated user. Each email is limited as the single request.
+	 *
+	 * @param otpBatchRequest the OTPBatchRequest
+	 * @param request         the HttpServletRequest
+	 * @return the response entity with the outcome of each email
+	 */
+	@PostMapping(value = "/request-otp/batch", consumes = { MediaType.APPLICATION_JSON_VALUE,
+			MediaType.APPLICATION_XML_VALUE }, produces = { MediaType.APPLICATION_JSON_VALUE,
+					MediaType.APPLICATION_XML_VALUE })
+	@RolesAllowed({ "ROLE_USER" })
+	public ResponseEntity<?> otpBatchRequest(@Valid @RequestBody OTPBatchRequest otpBatchRequest,
+			HttpServletRequest request) {
+
+		log.debug("otpBatchRequest] - Perform request one time password for {} emails",
+				otpBatchRequest.getEmails().size());
+
+		return ResponseEntity.ok(
+				new OtpBatchResponse(userService.requestOtps(otpBatchRequest.getEmails(), request.getRemoteAddr())));
+	}
+
+	/**
+	 * Handle MethodArgumentNotValidException.
+	 *
+	 * @param ex      the MethodArgumentNotValidException
+	 * @param request the WebRequest
+	 * @return the response entity
+	 */
+	@ExceptionHandler(value = { MethodArgumentNotValidException.class })
+	@ResponseBody()
+	public ResponseEntity<Object> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex,
+			WebRequest request) {
+		log.debug("handleMethodArgumentNotValidException] - Gets exception: {}", ex.getMessage());
+
+		InfoResponse infoResponse = new InfoResponse(HttpStatus.BAD_REQUEST, "Request is bad",
+				"Bad request. Please check your request for consistent of documentation.");
+
+		String headers = request.getHeader(HttpHeaders.ACCEPT);
+
+		MediaType mt;
+		if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+			mt = MediaType.APPLICATION_JSON;
+		} else {
+			mt = MediaType.APPLICATION_XML;
+		}
+		return ResponseEntity.status(infoResponse.getStatus()).contentType(mt).body(infoResponse);
 	}
 
 	/**
@@ -82,11 +191,107 @@ public class AuthController {
 	 *
 	 * @param ex      the OtpMailException
 	 * @param request the WebRequest
+	 * @return the response entity
 	 */
 	@ExceptionHandler(value = { OtpMailException.class })
 	@ResponseBody()
-	public void handleOtpMailException(OtpMailException ex, WebRequest request) {
-		log.error("handleOtpMailException] - Gets exception: {}", ex.getMessage());
+	public ResponseEntity<Object> handleOtpMailException(OtpMailException ex, WebRequest request) {
+		log.error("handleOtpMailException] - Gets exception: {}", ex.getErrMsg());
+
+		InfoResponse infoResponse = new InfoResponse(HttpStatus.SERVICE_UNAVAILABLE,
+				"One Time Password was not send", ex.getErrMsg());
+
+		String headers = request.getHeader(HttpHeaders.ACCEPT);
+
+		MediaType mt;
+		if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+			mt = MediaType.APPLICATION_JSON;
+		} else {
+			mt = MediaType.APPLICATION_XML;
+		}
+		return ResponseEntity.status(infoResponse.getStatus()).contentType(mt).body(infoResponse);
+	}
+
+	/**
+	 * Handle SharedStoreException.
+	 *
+	 * @param ex      the SharedStoreException
+	 * @param request the WebRequest
+	 * @return the response entity
+	 */
+	@ExceptionHandler(value = { SharedStoreException.class })
+	@ResponseBody()
+	public ResponseEntity<Object> handleSharedStoreException(SharedStoreException ex, WebRequest request) {
+		log.error("handleSharedStoreException] - Gets exception: {}", ex.getErrMsg());
+
+		InfoResponse infoResponse = new InfoResponse(HttpStatus.SERVICE_UNAVAILABLE, "Service unavailable",
+				"Please try again later.");
+
+		String headers = request.getHeader(HttpHeaders.ACCEPT);
+
+		MediaType mt;
+		if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+			mt = MediaType.APPLICATION_JSON;
+		} else {
+			mt = MediaType.APPLICATION_XML;
+		}
+		return ResponseEntity.status(infoResponse.getStatus()).contentType(mt).body(infoResponse);
+	}
+
+	/**
+	 * Handle locked exception.
+	 *
+	 * @param ex      the LockedException
+	 * @param request the WebRequest
+	 * @return the response entity
+	 */
+	@ExceptionHandler(value = { LockedException.class })
+	@ResponseBody()
+	public ResponseEntity<Object> handleLockedException(LockedException ex, WebRequest request) {
+		log.debug("handleLockedException] - Gets exception: {}", ex.getMessage());
+
+		InfoResponse infoResponse = new InfoResponse(HttpStatus.LOCKED, "Access denied",
+				"Too many failed logins. Please try again later.");
+
+		String headers = request.getHeader(HttpHeaders.ACCEPT);
+
+		MediaType mt;
+		if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+			mt = MediaType.APPLICATION_JSON;
+		} else {
+			mt = MediaType.APPLICATION_XML;
+		}
+		return ResponseEntity.status(infoResponse.getStatus()).contentType(mt).body(infoResponse);
+	}
+
+	/**
+	 * Handle RateLimitExceededException.
+	 *
+	 * @param ex      the RateLimitExceededException
+	 * @param request the WebRequest
+	 * @return the response entity
+	 */
+	@ExceptionHandler(value = { RateLimitExceededException.class })
+	@ResponseBody()
+	public ResponseEntity<Object> handleRateLimitExceededException(RateLimitExceededException ex,
+			WebRequest request) {
+		log.debug("handleRateLimitExceededException] - Gets exception: {}", ex.getErrMsg());
+
+		InfoResponse infoResponse = new InfoResponse(HttpStatus.TOO_MANY_REQUESTS, "Too many requests",
+				ex.getErrMsg());
+
+		String headers = request.getHeader(HttpHeaders.ACCEPT);
+
+		MediaType mt;
+		if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+			mt = MediaType.APPLICATION_JSON;
+		} else {
+			mt = MediaType.APPLICATION_XML;
+		}
+		return ResponseEntity.status(infoResponse.getStatus())
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+				.contentType(mt)
+				.body(infoResponse);
 	}
 
 	/**
@@ -106,7 +311,7 @@ public class AuthController {
 		String headers = request.getHeader(HttpHeaders.ACCEPT);
 
 		MediaType mt;
-		if (headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+		if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
 			mt = MediaType.APPLICATION_JSON;
 		} else {
 			mt = MediaType.APPLICATION_XML;
@@ -132,7 +337,7 @@ public class AuthController {
 		String headers = request.getHeader(HttpHeaders.ACCEPT);
 
 		MediaType mt;
-		if (headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+		if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
 			mt = MediaType.APPLICATION_JSON;
 		} else {
 			mt = MediaType.APPLICATION_XML;
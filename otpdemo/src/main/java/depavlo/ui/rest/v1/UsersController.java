@@ -1,8 +1,10 @@
 package depavlo.ui.rest.v1;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.List;
 import java.util.Optional;
 
 import javax.annotation.security.RolesAllowed;
@@ -19,12 +21,23 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 import com.google.common.collect.Multimap;
 
 import depavlo.model.User;
@@ -33,6 +46,7 @@ import depavlo.ui.rest.v1.model.request.UserCreateRequest;
 import depavlo.ui.rest.v1.model.request.UserUpdateRequest;
 import depavlo.ui.rest.v1.model.response.AbstractSubInfoResponse;
 import depavlo.ui.rest.v1.model.response.InfoResponse;
+import depavlo.ui.rest.v1.model.response.UsersPageResponse;
 import depavlo.ui.rest.v1.model.response.ValidationInfoResponse;
 import depavlo.util.exception.AuditException;
 import depavlo.util.exception.UserNotFoundException;
@@ -54,6 +68,15 @@ public class UsersController {
 	/** The Users service. */
 	private final UserService userService;
 
+	/** The media type of CSV. */
+	public static final String TEXT_CSV_VALUE = "text/csv";
+
+	/** The JSON object mapper. */
+	private final ObjectMapper objectMapper;
+
+	/** The CSV mapper. */
+	private final CsvMapper csvMapper = new CsvMapper();
+
 	/**
 	 * Gets the User by id.
 	 *
@@ -77,26 +100,100 @@ public class UsersController {
 	}
 
 	/**
-	 * List all users.
+	 * List the page of users. The pages are ordered by user id, the next page
+	 * starts after the cursor returned in the field "next" of the previous page.
+	 * It used to return the bare array of all users, the clients that need the
+	 * whole array in one response use the stream of users.
 	 *
+	 * @param after the cursor of the page, absent for the first page
+	 * @param size  the max count of users in the page
 	 * @return the response
 	 */
 	@GetMapping(value = "", consumes = { MediaType.APPLICATION_XML_VALUE,
 			MediaType.APPLICATION_JSON_VALUE }, produces = { MediaType.APPLICATION_XML_VALUE,
 					MediaType.APPLICATION_JSON_VALUE })
 	@RolesAllowed({ "ROLE_USER" })
-	public ResponseEntity<Object> listAllUsers() {
+	public ResponseEntity<Object> listAllUsers(@RequestParam(value = "after", required = false) Long after,
+			@RequestParam(value = "size", required = false) Integer size) {
 
-		log.debug("listAllUsers] - Get the list of  all Users");
+		log.debug("listAllUsers] - Get the page of {} Users after {}", size, after);
 
-		List<User> users = userService.getAllUsers();
+		UsersPageResponse page = userService.getUsersPage(after, size);
 
-		if (users.isEmpty()) {
+		if (page.getUsers().isEmpty()) {
 			return ResponseEntity.noContent().build();
 		}
 
-		return ResponseEntity.status(HttpStatus.OK).body(users);
+		return ResponseEntity.status(HttpStatus.OK).body(page);
+
+	}
 
+	/**
+	 * Stream all users as JSON array. The users are read from the database and
+	 * written to the response by portions, so the memory used does not depend on
+	 * the count of users.
+	 *
+	 * @return the response
+	 */
+	@GetMapping(value = "/stream", produces = { MediaType.APPLICATION_JSON_VALUE })
+	@RolesAllowed({ "ROLE_USER" })
+	public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+
+		log.debug("streamAllUsers] - Stream all Users");
+
+		StreamingResponseBody body = out -> {
+			try (JsonGenerator generator = objectMapper.createGenerator(out, JsonEncoding.UTF8)) {
+				generator.writeStartArray();
+				userService.forEachUser(user -> {
+					try {
+						generator.writeObject(user);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+				generator.writeEndArray();
+			}
+		};
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+	}
+
+	/**
+	 * Import users from NDJSON, one user create request per line, or from CSV with
+	 * the header of the request field names. The records are parsed and saved as
+	 * they are read, the result of each record is written back as the line of
+	 * NDJSON, so the memory used does not depend on the count of users.
+	 *
+	 * @param contentType the content type of the import
+	 * @param in          the import
+	 * @return the response
+	 */
+	@PostMapping(value = "/import", consumes = { MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE }, produces = {
+			MediaType.APPLICATION_NDJSON_VALUE })
+	@RolesAllowed({ "ROLE_USER" })
+	public ResponseEntity<StreamingResponseBody> importUsers(
+			@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream in) {
+
+		log.info("importUsers] - Import Users from {}", contentType);
+
+		ObjectReader reader = contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))
+				? csvMapper.readerFor(UserCreateRequest.class).with(CsvSchema.emptySchema().withHeader())
+				: objectMapper.readerFor(UserCreateRequest.class);
+
+		StreamingResponseBody body = out -> {
+			try (MappingIterator<UserCreateRequest> requests = reader.readValues(in);
+					SequenceWriter writer = objectMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+				userService.importUsers(requests, result -> {
+					try {
+						writer.write(result);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+
+		return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
 	}
 
 	/**
@@ -213,7 +310,7 @@ public class UsersController {
 		String headers = request.getHeader(HttpHeaders.ACCEPT);
 
 		MediaType mt;
-		if (headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+		if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
 			mt = MediaType.APPLICATION_JSON;
 		} else {
 			mt = MediaType.APPLICATION_XML;
@@ -249,7 +346,7 @@ public class UsersController {
 		String headers = request.getHeader(HttpHeaders.ACCEPT);
 
 		MediaType mt;
-		if (headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+		if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
 			mt = MediaType.APPLICATION_JSON;
 		} else {
 			mt = MediaType.APPLICATION_XML;
@@ -276,7 +373,7 @@ public class UsersController {
 		String headers = request.getHeader(HttpHeaders.ACCEPT);
 
 		MediaType mt;
-		if (headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+		if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
 			mt = MediaType.APPLICATION_JSON;
 		} else {
 			mt = MediaType.APPLICATION_XML;
@@ -27,7 +27,7 @@ public class ExpiredJwtExceptionHandler {
 		String headers = request.getHeader(HttpHeaders.ACCEPT);
 
 		MediaType mt;
-		if (headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
+		if (headers == null || headers.indexOf(MediaType.APPLICATION_XML_VALUE) == -1) {
 			mt = MediaType.APPLICATION_JSON;
 		} else {
 			mt = MediaType.APPLICATION_XML;
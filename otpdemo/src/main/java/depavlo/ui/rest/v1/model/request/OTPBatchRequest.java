@@ -0,0 +1,39 @@
+package depavlo.ui.rest.v1.model.request;
+
+import java.io.Serializable;
+import java.util.List;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * The Class OTPBatchRequest that represent the request of OTP for the group of
+ * users.
+ * 
+ * @author Pavlo Degtyaryev
+ */
+@ToString
+@Getter
+@Setter
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OTPBatchRequest implements Serializable {
+
+	private static final long serialVersionUID = 3125813504581305279L;
+
+	/** The max count of emails in one request. */
+	public static final int MAX_SIZE = 1000;
+
+	/** User emails to which otp will be sent. */
+	@NotEmpty
+	@Size(max = MAX_SIZE)
+	private List<String> emails;
+
+}
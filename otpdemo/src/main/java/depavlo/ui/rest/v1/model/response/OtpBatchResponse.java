@@ -0,0 +1,21 @@
+package depavlo.ui.rest.v1.model.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The Class OtpBatchResponse that represent the outcomes of the OTP request for
+ * the group of users.
+ * 
+ * @author Pavlo Degtyaryev
+ */
+@Data
+@AllArgsConstructor
+public class OtpBatchResponse {
+
+	/** The outcome of each requested email. */
+	private List<OtpRequestResult> results;
+
+}
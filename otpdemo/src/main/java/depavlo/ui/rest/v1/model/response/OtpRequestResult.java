@@ -0,0 +1,40 @@
+package depavlo.ui.rest.v1.model.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The Class OtpRequestResult that represent the outcome of the OTP request for
+ * one email of the batch.
+ * 
+ * @author Pavlo Degtyaryev
+ */
+@Data
+@AllArgsConstructor
+public class OtpRequestResult {
+
+	/** The status of the email that got the new OTP. */
+	public static final String ISSUED = "issued";
+
+	/** The status of the email that has the OTP which is not expired yet. */
+	public static final String PENDING = "pending";
+
+	/** The status of the email of no User. */
+	public static final String UNKNOWN = "unknown";
+
+	/** The status of the value that is not an email. */
+	public static final String INVALID = "invalid";
+
+	/** The status of the email or the client IP address that is over the rate limit. */
+	public static final String LIMITED = "limited";
+
+	/** The status of the email that OTP was not sent because the mail queue is full. */
+	public static final String FAILED = "failed";
+
+	/** The email. */
+	private String email;
+
+	/** The status. */
+	private String status;
+
+}
@@ -0,0 +1,79 @@
+package depavlo.ui.rest.v1.model.response;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The Class UserImportResponse that represent the result of one imported user
+ * record.
+ * 
+ * @author Pavlo Degtyaryev
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportResponse {
+
+	/** The status of the record that is created. */
+	public static final String CREATED = "created";
+
+	/** The status of the record that is not valid. */
+	public static final String INVALID = "invalid";
+
+	/** The status of the record that is not saved. */
+	public static final String FAILED = "failed";
+
+	/** The number of the record in the import, starting from 1. */
+	private long record;
+
+	/** The status of the record. */
+	private String status;
+
+	/** The id of the created User. */
+	private Long id;
+
+	/** The validation messages by field name. */
+	private Map<String, Collection<String>> errors;
+
+	/** The reason of the failure. */
+	private String message;
+
+	/**
+	 * Creates the result of the created User.
+	 *
+	 * @param record the record number
+	 * @param id     the User id
+	 * @return the user import response
+	 */
+	public static UserImportResponse created(long record, Long id) {
+		return new UserImportResponse(record, CREATED, id, null, null);
+	}
+
+	/**
+	 * Creates the result of the record that is not valid.
+	 *
+	 * @param record the record number
+	 * @param errors the validation messages by field name
+	 * @return the user import response
+	 */
+	public static UserImportResponse invalid(long record, Map<String, Collection<String>> errors) {
+		return new UserImportResponse(record, INVALID, null, errors, null);
+	}
+
+	/**
+	 * Creates the result of the record that is not saved.
+	 *
+	 * @param record  the record number
+	 * @param message the reason of the failure
+	 * @return the user import response
+	 */
+	public static UserImportResponse failed(long record, String message) {
+		return new UserImportResponse(record, FAILED, null, null, message);
+	}
+
+}
@@ -0,0 +1,27 @@
+package depavlo.ui.rest.v1.model.response;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import depavlo.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * The Class UsersPageResponse that represent the page of Users list.
+ * 
+ * @author Pavlo Degtyaryev
+ */
+@Data
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UsersPageResponse {
+
+	/** The Users of the page. */
+	private List<User> users;
+
+	/** The cursor of the next page, absent on the last page. */
+	private Long next;
+
+}
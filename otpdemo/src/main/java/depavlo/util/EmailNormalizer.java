@@ -0,0 +1,32 @@
+package depavlo.util;
+
+import java.util.Locale;
+
+import lombok.NonNull;
+
+/**
+ * The Class EmailNormalizer that makes the stored and looked up form of email.
+ * The emails are kept in lower case, so they are found by the exact match on the
+ * unique index of the email column.
+ *
+ * @author Pavlo Degtyaryev
+ */
+public final class EmailNormalizer {
+
+	/**
+	 * Instantiates a new email normalizer.
+	 */
+	private EmailNormalizer() {
+	}
+
+	/**
+	 * Normalize email.
+	 *
+	 * @param email the email
+	 * @return the email without surrounding spaces in lower case
+	 */
+	public static String normalize(@NonNull String email) {
+		return email.trim().toLowerCase(Locale.ROOT);
+	}
+
+}
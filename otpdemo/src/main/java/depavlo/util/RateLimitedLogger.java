@@ -0,0 +1,102 @@
+package depavlo.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.spi.LocationAwareLogger;
+
+import lombok.NonNull;
+
+/**
+ * The Class RateLimitedLogger that writes at most one warning per interval. The
+ * warnings dropped during the interval are only counted, and the count is added
+ * to the next written warning. It is used for the failures that can be repeated
+ * by every request, so a flood of bad requests does not become a flood of log
+ * lines. The warning is written with the name of this class as the boundary of
+ * the stack, so the location in the log line is the caller's one.
+ *
+ * @author Pavlo Degtyaryev
+ */
+public class RateLimitedLogger {
+
+	/** The fully qualified name of this class, the boundary of the caller. */
+	private static final String FQCN = RateLimitedLogger.class.getName();
+
+	/** The suffix of the message that follows the dropped messages. */
+	private static final String SUPPRESSED = " ({} similar message(s) suppressed)";
+
+	/** The logger. */
+	private final Logger logger;
+
+	/** The interval in nanoseconds. */
+	private final long intervalNanos;
+
+	/** The time in nanoseconds after which the next warning is written. */
+	private final AtomicLong nextAllowed;
+
+	/** The count of dropped warnings. */
+	private final LongAdder suppressed = new LongAdder();
+
+	/**
+	 * Instantiates a new rate limited logger.
+	 *
+	 * @param logger       the logger
+	 * @param intervalMsec the interval in milliseconds
+	 */
+	public RateLimitedLogger(@NonNull Logger logger, long intervalMsec) {
+		this.logger = logger;
+		this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMsec);
+		this.nextAllowed = new AtomicLong(System.nanoTime());
+	}
+
+	/**
+	 * Writes the warning, unless another warning was written during the interval.
+	 *
+	 * @param format the message format
+	 * @param arg    the message argument
+	 */
+	public void warn(String format, Object arg) {
+		if (!logger.isWarnEnabled()) {
+			return;
+		}
+		if (!acquire()) {
+			suppressed.increment();
+			return;
+		}
+		long dropped = suppressed.sumThenReset();
+		if (dropped > 0) {
+			write(format + SUPPRESSED, arg, dropped);
+		} else {
+			write(format, arg);
+		}
+	}
+
+	/**
+	 * Writes the warning with the location of the caller if the logger can keep
+	 * it.
+	 *
+	 * @param format the message format
+	 * @param args   the message arguments
+	 */
+	private void write(String format, Object... args) {
+		if (logger instanceof LocationAwareLogger) {
+			((LocationAwareLogger) logger).log(null, FQCN, LocationAwareLogger.WARN_INT, format, args, null);
+		} else {
+			logger.warn(format, args);
+		}
+	}
+
+	/**
+	 * Takes the permission to write the warning in the current interval.
+	 *
+	 * @return true, if the warning may be written
+	 */
+	private boolean acquire() {
+		long now = System.nanoTime();
+		long next = nextAllowed.get();
+		return now - next >= 0 && nextAllowed.compareAndSet(next, now + intervalNanos);
+	}
+
+}
@@ -0,0 +1,105 @@
+package depavlo.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * The Class VirtualThreads that creates virtual threads when the application
+ * runs on JDK 21 or newer. The project is compiled for Java 11, so the virtual
+ * thread API is looked up once by method handles and the application still
+ * starts on the older JDK with the platform threads.
+ *
+ * @author Pavlo Degtyaryev
+ */
+public final class VirtualThreads {
+
+	/** The handle of Thread.ofVirtual(), or null if the JDK has no virtual threads. */
+	private static final MethodHandle OF_VIRTUAL;
+
+	/** The handle of Thread.Builder.name(String, long). */
+	private static final MethodHandle NAME;
+
+	/** The handle of Thread.Builder.factory(). */
+	private static final MethodHandle FACTORY;
+
+	/** The handle of Executors.newThreadPerTaskExecutor(ThreadFactory). */
+	private static final MethodHandle NEW_THREAD_PER_TASK_EXECUTOR;
+
+	static {
+		MethodHandle ofVirtual = null;
+		MethodHandle name = null;
+		MethodHandle factory = null;
+		MethodHandle newThreadPerTaskExecutor = null;
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			Class<?> ofVirtualBuilder = Class.forName("java.lang.Thread$Builder$OfVirtual");
+			ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualBuilder));
+			name = lookup.findVirtual(builder, "name", MethodType.methodType(builder, String.class, long.class));
+			factory = lookup.findVirtual(builder, "factory", MethodType.methodType(ThreadFactory.class));
+			newThreadPerTaskExecutor = lookup.findStatic(Executors.class,
+					"newThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class, ThreadFactory.class));
+		} catch (ReflectiveOperationException e) {
+			ofVirtual = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		NAME = name;
+		FACTORY = factory;
+		NEW_THREAD_PER_TASK_EXECUTOR = newThreadPerTaskExecutor;
+	}
+
+	/**
+	 * Instantiates a new virtual threads.
+	 */
+	private VirtualThreads() {
+	}
+
+	/**
+	 * Checks if the running JDK has virtual threads.
+	 *
+	 * @return true, if supported
+	 */
+	public static boolean isSupported() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * Creates the factory of virtual threads named by the prefix and the number.
+	 *
+	 * @param prefix the thread name prefix
+	 * @return the thread factory
+	 * @throws UnsupportedOperationException if the JDK has no virtual threads
+	 */
+	public static ThreadFactory factory(String prefix) {
+		if (!isSupported()) {
+			throw new UnsupportedOperationException("Virtual threads require JDK 21 or newer");
+		}
+		try {
+			Object builder = NAME.invoke(OF_VIRTUAL.invoke(), prefix, 0L);
+			return (ThreadFactory) FACTORY.invoke(builder);
+		} catch (Throwable e) {
+			throw new IllegalStateException("Can not create the virtual thread factory", e);
+		}
+	}
+
+	/**
+	 * Creates the executor that starts the new virtual thread for each task.
+	 *
+	 * @param prefix the thread name prefix
+	 * @return the executor service
+	 * @throws UnsupportedOperationException if the JDK has no virtual threads
+	 */
+	public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+		ThreadFactory factory = factory(prefix);
+		try {
+			return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(factory);
+		} catch (Throwable e) {
+			throw new IllegalStateException("Can not create the virtual thread executor", e);
+		}
+	}
+
+}
@@ -0,0 +1,29 @@
+package depavlo.util.exception;
+
+import lombok.Getter;
+
+/**
+ * The Class RateLimitExceededException that thrown when the client sends more
+ * OTP requests or logins than allowed.
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Getter
+public class RateLimitExceededException extends CustomGenericException {
+
+	private static final long serialVersionUID = 4821530954726145210L;
+
+	/** The seconds after which the request may be repeated. */
+	private final long retryAfterSeconds;
+
+	/**
+	 * Instantiates a new rate limit exceeded exception.
+	 *
+	 * @param retryAfterSeconds the seconds after which the request may be repeated
+	 */
+	public RateLimitExceededException(long retryAfterSeconds) {
+		super("", "Too many requests. Please try again later.");
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+}
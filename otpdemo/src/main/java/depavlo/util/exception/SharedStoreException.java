@@ -0,0 +1,24 @@
+package depavlo.util.exception;
+
+/**
+ * The Class SharedStoreException that thrown when the shared store is not
+ * available or rejects the command.
+ *
+ * @author Pavlo Degtyaryev
+ */
+public class SharedStoreException extends CustomGenericException {
+
+	private static final long serialVersionUID = 6203114857264409361L;
+
+	/**
+	 * Instantiates a new shared store exception.
+	 *
+	 * @param errMsg the error message
+	 * @param cause  the cause
+	 */
+	public SharedStoreException(String errMsg, Throwable cause) {
+		super("", errMsg);
+		initCause(cause);
+	}
+
+}
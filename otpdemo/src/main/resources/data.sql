@@ -1,101 +0,0 @@
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (1,'user@ukr.net','User','Davidson','1960-11-08','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (2,'quam@sedhendrerit.ca','Karen','Hatfield','1976-07-11','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (3,'risus.Morbi@vitae.edu','Abraham','Brock','1950-05-04','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (4,'ante@magnis.ca','Rae','Joseph','1999-03-19','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (5,'molestie@magnaSuspendissetristique.ca','Hilda','Knox','2003-10-14','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (6,'ridiculus@quamdignissim.net','Alvin','Singleton','1999-07-22','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (7,'Aliquam@ipsumCurabitur.co.uk','Irene','Wagner','1990-03-30','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (8,'sit.amet.ultricies@semper.edu','Olga','Ortiz','1991-06-24','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (9,'blandit.at.nisi@atpretiumaliquet.org','Orli','Delaney','1943-01-19','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (10,'metus.facilisis@rhoncusDonec.com','Bianca','Weeks','1991-09-10','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (11,'velit.in.aliquet@Morbiaccumsan.co.uk','Oliver','Lindsey','1949-08-19','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (12,'molestie@nec.co.uk','Renee','Ramsey','1984-12-24','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (13,'vitae.nibh@dictummi.co.uk','Eugenia','Pratt','1955-07-16','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (14,'sagittis.lobortis@quamCurabiturvel.co.uk','Farrah','Holt','2001-01-20','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (15,'Suspendisse@lectuspedeet.co.uk','Serina','Phillips','1987-10-11','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (16,'dui@sitamet.co.uk','Kelly','Wiggins','1952-12-04','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (17,'Pellentesque@eu.co.uk','Daria','Morse','1993-01-14','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (18,'purus.ac@massaMaurisvestibulum.ca','Jeremy','Kidd','1960-10-11','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (19,'urna@augue.co.uk','Sasha','Gray','1962-12-27','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (20,'metus@magna.net','Paul','Baker','1981-07-02','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (21,'ipsum.Suspendisse@mollis.net','Molly','Watkins','2007-06-28','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (22,'vitae.purus@insodales.org','Denise','Hutchinson','1974-12-12','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (23,'tincidunt@semperduilectus.co.uk','Ella','Parker','2009-06-16','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (24,'nisi.nibh@sedest.com','Kuame','Douglas','1962-04-17','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (25,'lorem.tristique@massalobortis.org','Alma','Coleman','1993-05-03','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (26,'aliquet@volutpat.edu','Teagan','Mcknight','1992-05-25','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (27,'sit@pedemalesuada.edu','Hadassah','Burton','1951-06-01','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (28,'id@tempor.edu','Amber','Juarez','2006-08-02','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (29,'egestas@quamPellentesque.co.uk','Hop','Gay','1969-01-22','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (30,'ut.pellentesque.eget@consequat.com','Anne','Stafford','1970-04-09','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (31,'Sed.auctor.odio@estNuncullamcorper.ca','Wesley','Dyer','2011-02-24','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (32,'consectetuer@netusetmalesuada.edu','Susan','Mclaughlin','1966-11-21','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (33,'sem.elit.pharetra@turpisNullaaliquet.org','Devin','Stone','2010-09-16','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (34,'molestie.sodales@pellentesquetellus.edu','Chancellor','Parrish','1995-07-22','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (35,'Duis.risus.odio@NulladignissimMaecenas.com','Carter','Atkins','2006-12-17','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (36,'taciti.sociosqu.ad@hendreritneque.org','Graiden','Shaffer','2010-08-10','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (37,'eu@nulla.edu','Heidi','Nieves','2009-10-05','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (38,'lorem.eget.mollis@velest.co.uk','Leah','Bray','1976-02-24','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (39,'facilisis.eget.ipsum@convallisdolor.ca','Chanda','Harmon','1992-11-07','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (40,'molestie.arcu@lacusCrasinterdum.edu','Madonna','Holt','1981-10-16','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (41,'Cras.convallis@nasceturridiculusmus.co.uk','Olga','Woodward','1987-02-03','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (42,'velit.eu.sem@Curabitursed.ca','Lance','Lloyd','1982-11-13','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (43,'tincidunt@in.net','Shelley','Kirkland','1991-04-27','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (44,'enim@eleifend.net','David','Schneider','2002-04-06','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (45,'ligula.elit@temporarcu.net','John','Cotton','1952-11-22','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (46,'leo.in.lobortis@mi.edu','Kyle','Buckley','1972-07-22','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (47,'malesuada.fames.ac@dui.net','Barry','Marks','1992-09-08','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (48,'sapien.imperdiet@lobortisrisus.edu','Madeline','Garner','1958-11-28','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (49,'lobortis.Class@Aliquam.net','Shannon','Goff','1975-07-25','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (50,'odio.auctor.vitae@acsem.co.uk','Daria','Tran','1944-04-30','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (51,'massa.lobortis.ultrices@ante.ca','Kim','Barr','1990-06-03','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (52,'vitae@non.com','Signe','Ortega','1973-02-05','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (53,'Mauris.ut.quam@nonmassanon.org','Luke','Mckee','1957-04-04','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (54,'cursus.et.magna@non.org','Leah','Sherman','1976-09-03','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (55,'nulla.ante.iaculis@sapien.co.uk','Baker','Parsons','1991-12-18','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (56,'interdum@vitaepurusgravida.net','Wynne','Barlow','1993-06-18','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (57,'venenatis@pretiumnequeMorbi.edu','Kennan','Mercado','1971-01-13','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (58,'rutrum@Etiamligula.com','Mollie','Bridges','1994-04-01','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (59,'molestie@mi.org','Abraham','Whitley','1963-01-25','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (60,'purus@ac.org','Leandra','Savage','2011-11-18','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (61,'Mauris@Maurisvestibulum.net','Zephr','Allison','1946-10-18','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (62,'a.tortor@consequatauctor.com','Ramona','Drake','2008-08-25','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (63,'elit.pretium@temporarcuVestibulum.net','Hollee','Adams','1970-04-19','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (64,'rhoncus.Donec@magnisdisparturient.net','Libby','Guthrie','1996-10-10','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (65,'urna.et.arcu@egettinciduntdui.edu','Peter','Gaines','1947-10-27','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (66,'magnis.dis@rhoncusNullam.org','Derek','Hayes','1991-08-29','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (67,'sapien@nec.co.uk','Hollee','Robbins','2004-04-29','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (68,'suscipit@Nuncpulvinar.net','Clio','Strong','2008-07-26','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (69,'aliquam.eu@ac.edu','Tate','Richardson','1983-03-17','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (70,'cursus.Integer.mollis@gravida.org','Larissa','Faulkner','1985-01-30','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (71,'enim.nisl.elementum@pede.edu','Rajah','Kerr','1951-06-20','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (72,'convallis@Mauris.org','Leo','Mercado','1947-05-11','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (73,'dolor.tempus@tellusSuspendissesed.org','Lacy','Forbes','1995-06-20','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (74,'diam.at.pretium@ipsumcursusvestibulum.org','May','Phelps','2005-09-06','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (75,'bibendum@Nuncacsem.co.uk','Tara','Whitney','1983-05-31','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (76,'sociis@sedestNunc.co.uk','Dean','Dodson','1976-10-17','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (77,'sociis.natoque@habitantmorbitristique.edu','Hayden','Bush','1986-02-09','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (78,'tellus.Suspendisse@faucibusutnulla.com','Price','Kidd','1962-10-13','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (79,'ipsum@famesac.com','Remedios','Gallagher','1974-02-21','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (80,'Sed@egestaslaciniaSed.co.uk','Brenden','Daugherty','1980-07-23','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (81,'viverra.Donec.tempus@volutpatnunc.net','Rhiannon','Morris','1950-01-01','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (82,'non@necimperdiet.org','Rajah','Ware','2011-02-22','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (83,'porta@consequat.co.uk','Jemima','Burnett','1992-08-18','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (84,'sodales.elit@ac.org','Quincy','Rose','1979-12-20','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (85,'non@hendreritneque.edu','Hanae','Sims','1958-04-30','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (86,'montes.nascetur@mattis.ca','Cathleen','Patrick','1974-03-09','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (87,'odio.Etiam@turpis.ca','Shay','Andrews','1966-10-18','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (88,'nec.ante.blandit@semperetlacinia.edu','Dalton','Cabrera','2005-02-21','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (89,'et@imperdieteratnonummy.co.uk','Walter','Cantrell','1962-02-27','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (90,'lorem.fringilla@risusodioauctor.ca','Damian','Salinas','1949-02-04','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (91,'iaculis.enim@cursus.org','Omar','Vazquez','1946-06-09','MARRIED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (92,'Suspendisse@amet.edu','Demetrius','Perry','1965-12-06','WIDOWED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (93,'nunc.interdum@Phasellusvitaemauris.org','Cade','Case','1969-07-19','COMMONLAW');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (94,'turpis.egestas@semmagna.edu','Otto','Long','1980-08-28','COMPLICATED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (95,'tortor@Aenean.com','Benjamin','Moran','1989-08-07','SINGLE');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (96,'ipsum@malesuadafames.ca','Daria','Kirby','2001-02-18','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (97,'quis@ipsumcursus.com','Yasir','Matthews','1992-01-26','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (98,'Duis.ac.arcu@lectus.co.uk','Kyle','Sawyer','2008-04-29','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (99,'suscipit.est@libero.edu','Julie','Graves','1963-10-18','DIVORCED');
-INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) VALUES (100,'elementum@condimentum.edu','Myles','Eaton','1991-04-26','MARRIED');
-
@@ -0,0 +1,34 @@
+-- The schema is written in standard SQL, so the one migration serves every database
+-- with sequences. The ids of users and otp are allocated by Hibernate with the pooled-lo
+-- optimizer, one sequence call reserves ${idAllocationSize} ids, so the inserts can be batched
+
+-- Users, looked up by the exact match on the normalized email
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY ${idAllocationSize};
+
+CREATE TABLE users (
+    user_id BIGINT NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    name VARCHAR(75) NOT NULL,
+    last_name VARCHAR(75) NOT NULL,
+    birth_day DATE NOT NULL,
+    marital_status VARCHAR(255) NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (user_id),
+    CONSTRAINT uk_users_email UNIQUE (email),
+    CONSTRAINT ck_users_email_normalized CHECK (email = LOWER(TRIM(email)))
+);
+
+-- One-time passwords, one per user email
+CREATE SEQUENCE otp_seq START WITH 1 INCREMENT BY ${idAllocationSize};
+
+CREATE TABLE otp (
+    otp_id BIGINT NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    otp VARCHAR(255) NOT NULL,
+    expired TIMESTAMP NOT NULL,
+    CONSTRAINT pk_otp PRIMARY KEY (otp_id),
+    CONSTRAINT uk_otp_email UNIQUE (email),
+    CONSTRAINT ck_otp_email_normalized CHECK (email = LOWER(TRIM(email)))
+);
+
+-- The purge of expired OTP selects them by this index
+CREATE INDEX idx_otp_expired ON otp (expired);
@@ -0,0 +1,114 @@
+-- Demo users of the dev profile. The Flyway callback runs after every migrate and is not
+-- recorded in the schema history, so the database migrated by any profile stays valid for
+-- the others. The users are inserted only into the empty table. The restart of the sequence
+-- by the subquery is written for the H2 database of the dev profile.
+INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status)
+SELECT * FROM (VALUES
+    (1,'user@ukr.net','User','Davidson','1960-11-08','SINGLE'),
+    (2,'quam@sedhendrerit.ca','Karen','Hatfield','1976-07-11','COMMONLAW'),
+    (3,'risus.morbi@vitae.edu','Abraham','Brock','1950-05-04','DIVORCED'),
+    (4,'ante@magnis.ca','Rae','Joseph','1999-03-19','DIVORCED'),
+    (5,'molestie@magnasuspendissetristique.ca','Hilda','Knox','2003-10-14','WIDOWED'),
+    (6,'ridiculus@quamdignissim.net','Alvin','Singleton','1999-07-22','MARRIED'),
+    (7,'aliquam@ipsumcurabitur.co.uk','Irene','Wagner','1990-03-30','COMMONLAW'),
+    (8,'sit.amet.ultricies@semper.edu','Olga','Ortiz','1991-06-24','COMMONLAW'),
+    (9,'blandit.at.nisi@atpretiumaliquet.org','Orli','Delaney','1943-01-19','SINGLE'),
+    (10,'metus.facilisis@rhoncusdonec.com','Bianca','Weeks','1991-09-10','SINGLE'),
+    (11,'velit.in.aliquet@morbiaccumsan.co.uk','Oliver','Lindsey','1949-08-19','SINGLE'),
+    (12,'molestie@nec.co.uk','Renee','Ramsey','1984-12-24','COMMONLAW'),
+    (13,'vitae.nibh@dictummi.co.uk','Eugenia','Pratt','1955-07-16','MARRIED'),
+    (14,'sagittis.lobortis@quamcurabiturvel.co.uk','Farrah','Holt','2001-01-20','MARRIED'),
+    (15,'suspendisse@lectuspedeet.co.uk','Serina','Phillips','1987-10-11','COMPLICATED'),
+    (16,'dui@sitamet.co.uk','Kelly','Wiggins','1952-12-04','DIVORCED'),
+    (17,'pellentesque@eu.co.uk','Daria','Morse','1993-01-14','MARRIED'),
+    (18,'purus.ac@massamaurisvestibulum.ca','Jeremy','Kidd','1960-10-11','MARRIED'),
+    (19,'urna@augue.co.uk','Sasha','Gray','1962-12-27','COMMONLAW'),
+    (20,'metus@magna.net','Paul','Baker','1981-07-02','WIDOWED'),
+    (21,'ipsum.suspendisse@mollis.net','Molly','Watkins','2007-06-28','COMMONLAW'),
+    (22,'vitae.purus@insodales.org','Denise','Hutchinson','1974-12-12','MARRIED'),
+    (23,'tincidunt@semperduilectus.co.uk','Ella','Parker','2009-06-16','COMPLICATED'),
+    (24,'nisi.nibh@sedest.com','Kuame','Douglas','1962-04-17','WIDOWED'),
+    (25,'lorem.tristique@massalobortis.org','Alma','Coleman','1993-05-03','COMPLICATED'),
+    (26,'aliquet@volutpat.edu','Teagan','Mcknight','1992-05-25','COMMONLAW'),
+    (27,'sit@pedemalesuada.edu','Hadassah','Burton','1951-06-01','SINGLE'),
+    (28,'id@tempor.edu','Amber','Juarez','2006-08-02','MARRIED'),
+    (29,'egestas@quampellentesque.co.uk','Hop','Gay','1969-01-22','COMPLICATED'),
+    (30,'ut.pellentesque.eget@consequat.com','Anne','Stafford','1970-04-09','COMPLICATED'),
+    (31,'sed.auctor.odio@estnuncullamcorper.ca','Wesley','Dyer','2011-02-24','COMMONLAW'),
+    (32,'consectetuer@netusetmalesuada.edu','Susan','Mclaughlin','1966-11-21','MARRIED'),
+    (33,'sem.elit.pharetra@turpisnullaaliquet.org','Devin','Stone','2010-09-16','SINGLE'),
+    (34,'molestie.sodales@pellentesquetellus.edu','Chancellor','Parrish','1995-07-22','SINGLE'),
+    (35,'duis.risus.odio@nulladignissimmaecenas.com','Carter','Atkins','2006-12-17','WIDOWED'),
+    (36,'taciti.sociosqu.ad@hendreritneque.org','Graiden','Shaffer','2010-08-10','COMPLICATED'),
+    (37,'eu@nulla.edu','Heidi','Nieves','2009-10-05','DIVORCED'),
+    (38,'lorem.eget.mollis@velest.co.uk','Leah','Bray','1976-02-24','MARRIED'),
+    (39,'facilisis.eget.ipsum@convallisdolor.ca','Chanda','Harmon','1992-11-07','MARRIED'),
+    (40,'molestie.arcu@lacuscrasinterdum.edu','Madonna','Holt','1981-10-16','SINGLE'),
+    (41,'cras.convallis@nasceturridiculusmus.co.uk','Olga','Woodward','1987-02-03','DIVORCED'),
+    (42,'velit.eu.sem@curabitursed.ca','Lance','Lloyd','1982-11-13','WIDOWED'),
+    (43,'tincidunt@in.net','Shelley','Kirkland','1991-04-27','MARRIED'),
+    (44,'enim@eleifend.net','David','Schneider','2002-04-06','WIDOWED'),
+    (45,'ligula.elit@temporarcu.net','John','Cotton','1952-11-22','COMMONLAW'),
+    (46,'leo.in.lobortis@mi.edu','Kyle','Buckley','1972-07-22','SINGLE'),
+    (47,'malesuada.fames.ac@dui.net','Barry','Marks','1992-09-08','COMPLICATED'),
+    (48,'sapien.imperdiet@lobortisrisus.edu','Madeline','Garner','1958-11-28','SINGLE'),
+    (49,'lobortis.class@aliquam.net','Shannon','Goff','1975-07-25','WIDOWED'),
+    (50,'odio.auctor.vitae@acsem.co.uk','Daria','Tran','1944-04-30','SINGLE'),
+    (51,'massa.lobortis.ultrices@ante.ca','Kim','Barr','1990-06-03','COMPLICATED'),
+    (52,'vitae@non.com','Signe','Ortega','1973-02-05','MARRIED'),
+    (53,'mauris.ut.quam@nonmassanon.org','Luke','Mckee','1957-04-04','DIVORCED'),
+    (54,'cursus.et.magna@non.org','Leah','Sherman','1976-09-03','COMPLICATED'),
+    (55,'nulla.ante.iaculis@sapien.co.uk','Baker','Parsons','1991-12-18','MARRIED'),
+    (56,'interdum@vitaepurusgravida.net','Wynne','Barlow','1993-06-18','MARRIED'),
+    (57,'venenatis@pretiumnequemorbi.edu','Kennan','Mercado','1971-01-13','COMPLICATED'),
+    (58,'rutrum@etiamligula.com','Mollie','Bridges','1994-04-01','SINGLE'),
+    (59,'molestie@mi.org','Abraham','Whitley','1963-01-25','COMPLICATED'),
+    (60,'purus@ac.org','Leandra','Savage','2011-11-18','WIDOWED'),
+    (61,'mauris@maurisvestibulum.net','Zephr','Allison','1946-10-18','MARRIED'),
+    (62,'a.tortor@consequatauctor.com','Ramona','Drake','2008-08-25','COMPLICATED'),
+    (63,'elit.pretium@temporarcuvestibulum.net','Hollee','Adams','1970-04-19','COMPLICATED'),
+    (64,'rhoncus.donec@magnisdisparturient.net','Libby','Guthrie','1996-10-10','COMPLICATED'),
+    (65,'urna.et.arcu@egettinciduntdui.edu','Peter','Gaines','1947-10-27','SINGLE'),
+    (66,'magnis.dis@rhoncusnullam.org','Derek','Hayes','1991-08-29','DIVORCED'),
+    (67,'sapien@nec.co.uk','Hollee','Robbins','2004-04-29','COMMONLAW'),
+    (68,'suscipit@nuncpulvinar.net','Clio','Strong','2008-07-26','MARRIED'),
+    (69,'aliquam.eu@ac.edu','Tate','Richardson','1983-03-17','COMMONLAW'),
+    (70,'cursus.integer.mollis@gravida.org','Larissa','Faulkner','1985-01-30','MARRIED'),
+    (71,'enim.nisl.elementum@pede.edu','Rajah','Kerr','1951-06-20','COMMONLAW'),
+    (72,'convallis@mauris.org','Leo','Mercado','1947-05-11','DIVORCED'),
+    (73,'dolor.tempus@tellussuspendissesed.org','Lacy','Forbes','1995-06-20','SINGLE'),
+    (74,'diam.at.pretium@ipsumcursusvestibulum.org','May','Phelps','2005-09-06','MARRIED'),
+    (75,'bibendum@nuncacsem.co.uk','Tara','Whitney','1983-05-31','WIDOWED'),
+    (76,'sociis@sedestnunc.co.uk','Dean','Dodson','1976-10-17','SINGLE'),
+    (77,'sociis.natoque@habitantmorbitristique.edu','Hayden','Bush','1986-02-09','MARRIED'),
+    (78,'tellus.suspendisse@faucibusutnulla.com','Price','Kidd','1962-10-13','MARRIED'),
+    (79,'ipsum@famesac.com','Remedios','Gallagher','1974-02-21','MARRIED'),
+    (80,'sed@egestaslaciniased.co.uk','Brenden','Daugherty','1980-07-23','SINGLE'),
+    (81,'viverra.donec.tempus@volutpatnunc.net','Rhiannon','Morris','1950-01-01','MARRIED'),
+    (82,'non@necimperdiet.org','Rajah','Ware','2011-02-22','WIDOWED'),
+    (83,'porta@consequat.co.uk','Jemima','Burnett','1992-08-18','MARRIED'),
+    (84,'sodales.elit@ac.org','Quincy','Rose','1979-12-20','DIVORCED'),
+    (85,'non@hendreritneque.edu','Hanae','Sims','1958-04-30','COMMONLAW'),
+    (86,'montes.nascetur@mattis.ca','Cathleen','Patrick','1974-03-09','COMMONLAW'),
+    (87,'odio.etiam@turpis.ca','Shay','Andrews','1966-10-18','WIDOWED'),
+    (88,'nec.ante.blandit@semperetlacinia.edu','Dalton','Cabrera','2005-02-21','SINGLE'),
+    (89,'et@imperdieteratnonummy.co.uk','Walter','Cantrell','1962-02-27','COMPLICATED'),
+    (90,'lorem.fringilla@risusodioauctor.ca','Damian','Salinas','1949-02-04','COMPLICATED'),
+    (91,'iaculis.enim@cursus.org','Omar','Vazquez','1946-06-09','MARRIED'),
+    (92,'suspendisse@amet.edu','Demetrius','Perry','1965-12-06','WIDOWED'),
+    (93,'nunc.interdum@phasellusvitaemauris.org','Cade','Case','1969-07-19','COMMONLAW'),
+    (94,'turpis.egestas@semmagna.edu','Otto','Long','1980-08-28','COMPLICATED'),
+    (95,'tortor@aenean.com','Benjamin','Moran','1989-08-07','SINGLE'),
+    (96,'ipsum@malesuadafames.ca','Daria','Kirby','2001-02-18','DIVORCED'),
+    (97,'quis@ipsumcursus.com','Yasir','Matthews','1992-01-26','DIVORCED'),
+    (98,'duis.ac.arcu@lectus.co.uk','Kyle','Sawyer','2008-04-29','DIVORCED'),
+    (99,'suscipit.est@libero.edu','Julie','Graves','1963-10-18','DIVORCED'),
+    (100,'elementum@condimentum.edu','Myles','Eaton','1991-04-26','MARRIED')
+) AS seed
+WHERE NOT EXISTS (SELECT 1 FROM users);
+
+-- New users get the ids after the seeded ones, the sequence never goes back, as the running
+-- instance may already hold the block of ids
+ALTER SEQUENCE users_seq RESTART WITH (SELECT GREATEST(
+    (SELECT COALESCE(MAX(user_id), 0) + 1 FROM users),
+    (SELECT CURRENT_VALUE + INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'USERS_SEQ')));
@@ -0,0 +1,283 @@
+package depavlo.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetup;
+
+import depavlo.OtpDemoApplication;
+import depavlo.config.ExecutionConfig;
+import depavlo.model.User;
+import depavlo.service.UserServiceToRepo;
+import depavlo.util.VirtualThreads;
+
+/**
+ * The load test that compares the latency of the auth endpoints at the growing
+ * count of concurrent clients. Each client sends the OTP request and the login
+ * with the wrong OTP in the closed loop. The database round trip of a remote
+ * server is emulated by the pause on each connection checkout, so the requests
+ * wait for I/O like in production instead of running on the in-memory H2 at the
+ * CPU speed. Tomcat gets the small worker pool, so with the platform threads
+ * the clients above it wait in the queue of the pool.
+ * <p>
+ * Run it once per execution mode on JDK 21 and compare the reports:
+ * mvn -P loadtest test -Dtest=ConcurrencyLoadTest
+ * [-Dapp.execution.virtualThreads=true] [-Dloadtest.concurrency=25,50,100,200,400]
+ * [-Dloadtest.levelSec=5] [-Dloadtest.dbLatencyMsec=20]
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Tag("load")
+@SpringBootTest(classes = { OtpDemoApplication.class }, webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:concurrencytest;DB_CLOSE_DELAY=-1", "spring.mail.port=3028",
+		"server.tomcat.threads.max=50", "app.otp.rateLimit.enabled=false", "app.auth.lockout.enabled=false",
+		"spring.jpa.show-sql=false", "logging.level.root=WARN", "logging.level.depavlo=WARN",
+		"logging.level.org.springframework.jdbc.core.StatementCreatorUtils=INFO" })
+@ActiveProfiles("dev")
+class ConcurrencyLoadTest {
+
+	/** The counts of concurrent clients. */
+	private static final int[] CONCURRENCY = Arrays.stream(
+			System.getProperty("loadtest.concurrency", "25,50,100,200,400").split(","))
+			.mapToInt(level -> Integer.parseInt(level.trim())).toArray();
+
+	/** The duration of each concurrency level in seconds. */
+	private static final int LEVEL_SEC = Integer.getInteger("loadtest.levelSec", 5);
+
+	/** The emulated database round trip in milliseconds. */
+	private static final long DB_LATENCY_MSEC = Long.getLong("loadtest.dbLatencyMsec", 20);
+
+	/** The highest trackable latency in microseconds. */
+	private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(new ServerSetup(3028, null, ServerSetup.PROTOCOL_SMTP));
+
+	@LocalServerPort
+	private int port;
+
+	@Value("${" + ExecutionConfig.VIRTUAL_THREADS_PROPERTY + "}")
+	private boolean virtualThreads;
+
+	@Autowired
+	private UserServiceToRepo userServiceToRepo;
+
+	/** The http client. */
+	private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+	@Test
+	void reportsLatencyByConcurrency() throws Exception {
+		String mode = virtualThreads && VirtualThreads.isSupported() ? "virtual" : "platform";
+		List<User> users = userServiceToRepo.getUsersAfter(Long.MIN_VALUE, 1000);
+
+		// warm up the JIT and the connections, the result is dropped
+		run(CONCURRENCY[0], users);
+
+		List<Result> results = new ArrayList<>();
+		for (int clients : CONCURRENCY) {
+			results.add(run(clients, users));
+		}
+
+		report(mode, results);
+		write(results, Path.of("target", "loadtest", "concurrency-" + mode + ".properties"));
+		assertTrue(results.stream().allMatch(result -> result.histogram.getTotalCount() > 0),
+				"No requests were completed");
+	}
+
+	/**
+	 * Runs the clients in the closed loop during the level duration.
+	 *
+	 * @param clients the count of concurrent clients
+	 * @param users   the users
+	 * @return the result of the level
+	 * @throws InterruptedException if interrupted
+	 */
+	private Result run(int clients, List<User> users) throws InterruptedException {
+		Result result = new Result(clients);
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(LEVEL_SEC);
+		ExecutorService executor = Executors.newFixedThreadPool(clients);
+		for (int i = 0; i < clients; i++) {
+			executor.execute(() -> {
+				while (System.nanoTime() - deadline < 0) {
+					String email = users.get(ThreadLocalRandom.current().nextInt(users.size())).getEmail();
+					HttpRequest request = ThreadLocalRandom.current().nextBoolean()
+							? post("/api/v1/auth/request-otp", "{\"email\":\"" + email + "\"}")
+							: post("/api/v1/auth/login", "{\"email\":\"" + email + "\",\"password\":\"000000\"}");
+					long start = System.nanoTime();
+					int status;
+					try {
+						status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+					} catch (IOException e) {
+						status = -1;
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+						return;
+					}
+					long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+					result.histogram.recordValue(Math.min(latency, MAX_LATENCY_MICROS));
+					// 202 for the OTP request and 403 for the wrong OTP are expected
+					if (status != 202 && status != 403) {
+						result.errors.increment();
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(LEVEL_SEC + 60L, TimeUnit.SECONDS);
+		return result;
+	}
+
+	/**
+	 * Prints the throughput and the latencies of each concurrency level.
+	 *
+	 * @param mode    the execution mode
+	 * @param results the results
+	 */
+	private static void report(String mode, List<Result> results) {
+		System.out.printf("%s threads, db latency %d ms%n", mode, DB_LATENCY_MSEC);
+		System.out.printf("%8s %10s %10s %10s %10s %10s %8s%n", "clients", "req/s", "p50 ms", "p99 ms", "p999 ms",
+				"max ms", "errors");
+		for (Result result : results) {
+			Histogram h = result.histogram;
+			System.out.printf("%8d %10.1f %10.2f %10.2f %10.2f %10.2f %8d%n", result.clients, result.throughput(),
+					LatencyBaseline.millis(h, 50.0), LatencyBaseline.millis(h, 99.0), LatencyBaseline.millis(h, 99.9),
+					h.getMaxValue() / 1000.0, result.errors.sum());
+		}
+	}
+
+	/**
+	 * Writes the results as properties with the keys like 'clients.100.p99'.
+	 *
+	 * @param results the results
+	 * @param file    the file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private static void write(List<Result> results, Path file) throws IOException {
+		Properties properties = new Properties();
+		for (Result result : results) {
+			String prefix = "clients." + result.clients + ".";
+			properties.setProperty(prefix + "throughput", String.format("%.1f", result.throughput()));
+			properties.setProperty(prefix + "p50", String.format("%.2f", LatencyBaseline.millis(result.histogram, 50.0)));
+			properties.setProperty(prefix + "p99", String.format("%.2f", LatencyBaseline.millis(result.histogram, 99.0)));
+			properties.setProperty(prefix + "p999",
+					String.format("%.2f", LatencyBaseline.millis(result.histogram, 99.9)));
+			properties.setProperty(prefix + "errors", String.valueOf(result.errors.sum()));
+		}
+		Files.createDirectories(file.getParent());
+		try (Writer writer = Files.newBufferedWriter(file)) {
+			properties.store(writer, "Latency in milliseconds by count of concurrent clients");
+		}
+	}
+
+	private HttpRequest post(String path, String body) {
+		return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+				.header("Content-Type", "application/json")
+				.header("Accept", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body))
+				.build();
+	}
+
+	/**
+	 * The Class Result of one concurrency level.
+	 */
+	private static class Result {
+
+		/** The count of concurrent clients. */
+		private final int clients;
+
+		/** The latency histogram in microseconds. */
+		private final Histogram histogram = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+
+		/** The count of unexpected responses. */
+		private final LongAdder errors = new LongAdder();
+
+		Result(int clients) {
+			this.clients = clients;
+		}
+
+		/**
+		 * Gets the requests per second.
+		 *
+		 * @return the throughput
+		 */
+		double throughput() {
+			return histogram.getTotalCount() / (double) LEVEL_SEC;
+		}
+	}
+
+	/**
+	 * The configuration that emulates the remote database.
+	 */
+	@TestConfiguration
+	static class RemoteDatabaseConfig {
+
+		/**
+		 * Wraps the data source so each connection checkout waits for the round
+		 * trip.
+		 *
+		 * @return the bean post processor
+		 */
+		@Bean
+		static BeanPostProcessor remoteDatabaseLatency() {
+			return new BeanPostProcessor() {
+				@Override
+				public Object postProcessAfterInitialization(Object bean, String beanName) {
+					if (!(bean instanceof DataSource)) {
+						return bean;
+					}
+					return new DelegatingDataSource((DataSource) bean) {
+						@Override
+						public Connection getConnection() throws SQLException {
+							try {
+								Thread.sleep(DB_LATENCY_MSEC);
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+								throw new SQLException("Interrupted", e);
+							}
+							return super.getConnection();
+						}
+					};
+				}
+			};
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+package depavlo.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * The Class LatencyBaseline that holds the stored p50, p99 and p999 latencies
+ * in milliseconds of each endpoint. The keys of the properties file are
+ * "endpoint.percentile", for example "login.p99".
+ *
+ * @author Pavlo Degtyaryev
+ */
+class LatencyBaseline {
+
+	/** The percentiles by their names. */
+	private static final Map<String, Double> PERCENTILES = Map.of("p50", 50.0, "p99", 99.0, "p999", 99.9);
+
+	/** The baseline latencies. */
+	private final Properties latencies;
+
+	/**
+	 * Instantiates a new latency baseline.
+	 *
+	 * @param latencies the baseline latencies
+	 */
+	private LatencyBaseline(Properties latencies) {
+		this.latencies = latencies;
+	}
+
+	/**
+	 * Loads the baseline from the classpath resource.
+	 *
+	 * @param resource the resource name
+	 * @return the latency baseline
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	static LatencyBaseline load(String resource) throws IOException {
+		Properties latencies = new Properties();
+		try (InputStream in = LatencyBaseline.class.getResourceAsStream(resource)) {
+			if (in == null) {
+				throw new IOException("Latency baseline not found: " + resource);
+			}
+			latencies.load(in);
+		}
+		return new LatencyBaseline(latencies);
+	}
+
+	/**
+	 * Compares the measured latencies with the baseline.
+	 *
+	 * @param histograms the histograms in microseconds by endpoint
+	 * @param tolerance  the allowed ratio of the measured latency to the baseline
+	 * @return the descriptions of the regressions, empty if there are none
+	 */
+	List<String> regressions(Map<String, Histogram> histograms, double tolerance) {
+		List<String> regressions = new ArrayList<>();
+		histograms.forEach((endpoint, histogram) -> PERCENTILES.forEach((name, percentile) -> {
+			String baseline = latencies.getProperty(endpoint + "." + name);
+			if (baseline == null) {
+				return;
+			}
+			double limit = Double.parseDouble(baseline) * tolerance;
+			double measured = millis(histogram, percentile);
+			if (measured > limit) {
+				regressions.add(String.format(Locale.ROOT, "%s %s is %.2f ms, limit is %.2f ms", endpoint, name,
+						measured, limit));
+			}
+		}));
+		return regressions;
+	}
+
+	/**
+	 * Writes the measured latencies in the format of the baseline, so the file can
+	 * replace the stored baseline.
+	 *
+	 * @param histograms the histograms in microseconds by endpoint
+	 * @param file       the file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	static void write(Map<String, Histogram> histograms, Path file) throws IOException {
+		Files.createDirectories(file.getParent());
+		try (Writer out = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+			for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+				for (String name : List.of("p50", "p99", "p999")) {
+					out.write(String.format(Locale.ROOT, "%s.%s=%.2f%n", entry.getKey(), name,
+							millis(entry.getValue(), PERCENTILES.get(name))));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the latency at the percentile in milliseconds.
+	 *
+	 * @param histogram  the histogram in microseconds
+	 * @param percentile the percentile
+	 * @return the latency in milliseconds
+	 */
+	static double millis(Histogram histogram, double percentile) {
+		return histogram.getValueAtPercentile(percentile) / 1000.0;
+	}
+}
@@ -0,0 +1,165 @@
+package depavlo.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * The Class LoadGenerator that sends the requests at the fixed arrival rate and
+ * records the latency of each endpoint into the HdrHistogram. The latency is
+ * measured from the moment the request was scheduled to be sent, so a slow
+ * server does not hide its stalls by slowing down the load (coordinated
+ * omission).
+ *
+ * @author Pavlo Degtyaryev
+ */
+class LoadGenerator {
+
+	/** The highest trackable latency in microseconds. */
+	private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+	/** The http client. */
+	private final HttpClient httpClient = HttpClient.newHttpClient();
+
+	/** The latency histograms in microseconds by endpoint. */
+	private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+	/** The count of unexpected responses by endpoint. */
+	private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+	/** The count of requests per second. */
+	private final int rate;
+
+	/**
+	 * Instantiates a new load generator.
+	 *
+	 * @param rate the count of requests per second
+	 */
+	LoadGenerator(int rate) {
+		this.rate = rate;
+	}
+
+	/**
+	 * Sends the count of calls at the fixed arrival rate and waits for all
+	 * responses.
+	 *
+	 * @param count the count of calls
+	 * @param calls the function that makes the call by its number, or returns null
+	 *              to skip the slot
+	 */
+	void run(int count, IntFunction<Call> calls) {
+		long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+		long start = System.nanoTime();
+		List<CompletableFuture<?>> pending = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			long intended = start + i * interval;
+			long delay = intended - System.nanoTime();
+			if (delay > 0) {
+				LockSupport.parkNanos(delay);
+			}
+			Call call = calls.apply(i);
+			if (call != null) {
+				pending.add(send(call, intended));
+			}
+		}
+		CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+	}
+
+	/**
+	 * Sends the call and records its latency.
+	 *
+	 * @param call     the call
+	 * @param intended the time in nanoseconds the call was scheduled at
+	 * @return the future of the response
+	 */
+	private CompletableFuture<?> send(Call call, long intended) {
+		return httpClient.sendAsync(call.request, HttpResponse.BodyHandlers.ofString())
+				.handle((response, e) -> {
+					long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+					histogram(call.endpoint).recordValue(Math.min(latency, MAX_LATENCY_MICROS));
+					if (e != null || response.statusCode() != call.expectedStatus) {
+						errors.computeIfAbsent(call.endpoint, k -> new LongAdder()).increment();
+					} else if (call.onResponse != null) {
+						call.onResponse.accept(response);
+					}
+					return null;
+				});
+	}
+
+	/**
+	 * Gets the histogram of the endpoint.
+	 *
+	 * @param endpoint the endpoint
+	 * @return the histogram
+	 */
+	private Histogram histogram(String endpoint) {
+		return histograms.computeIfAbsent(endpoint, k -> new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+	}
+
+	/**
+	 * Gets the latency histograms by endpoint.
+	 *
+	 * @return the histograms sorted by endpoint
+	 */
+	Map<String, Histogram> getHistograms() {
+		return new TreeMap<>(histograms);
+	}
+
+	/**
+	 * Gets the count of unexpected responses by endpoint.
+	 *
+	 * @return the errors
+	 */
+	Map<String, Long> getErrors() {
+		Map<String, Long> result = new TreeMap<>();
+		errors.forEach((endpoint, count) -> result.put(endpoint, count.sum()));
+		return result;
+	}
+
+	/**
+	 * The Class Call that is one request to the endpoint.
+	 */
+	static class Call {
+
+		/** The endpoint name used as the histogram name. */
+		private final String endpoint;
+
+		/** The request. */
+		private final HttpRequest request;
+
+		/** The expected HTTP status. */
+		private final int expectedStatus;
+
+		/** The handler of the expected response. */
+		private final Consumer<HttpResponse<String>> onResponse;
+
+		/**
+		 * Instantiates a new call.
+		 *
+		 * @param endpoint       the endpoint name
+		 * @param request        the request
+		 * @param expectedStatus the expected HTTP status
+		 * @param onResponse     the handler of the expected response, may be null
+		 */
+		Call(String endpoint, HttpRequest request, int expectedStatus, Consumer<HttpResponse<String>> onResponse) {
+			this.endpoint = endpoint;
+			this.request = request;
+			this.expectedStatus = expectedStatus;
+			this.onResponse = onResponse;
+		}
+	}
+}
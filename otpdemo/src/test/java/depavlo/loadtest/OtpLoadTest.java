@@ -0,0 +1,188 @@
+package depavlo.loadtest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.mail.internet.MimeMessage;
+
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetup;
+
+import depavlo.OtpDemoApplication;
+import depavlo.loadtest.LoadGenerator.Call;
+import depavlo.model.User;
+import depavlo.service.UserServiceToRepo;
+
+/**
+ * The load test that boots the application with H2 and drives the auth and
+ * users endpoints at the fixed arrival rate. The OTP are captured by the
+ * embedded SMTP server. It fails when the p50, p99 or p999 latency of an
+ * endpoint exceeds the stored baseline multiplied by the tolerance.
+ * <p>
+ * Run it with: mvn -P loadtest test [-Dloadtest.rate=50]
+ * [-Dloadtest.durationSec=20] [-Dloadtest.tolerance=1.5]
+ *
+ * @author Pavlo Degtyaryev
+ */
+@Tag("load")
+@SpringBootTest(classes = { OtpDemoApplication.class }, webEnvironment = WebEnvironment.RANDOM_PORT, properties = {
+		"spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1", "spring.mail.port=3027",
+		"app.otp.rateLimit.enabled=false" })
+@ActiveProfiles("dev")
+class OtpLoadTest {
+
+	/** The requests per second. */
+	private static final int RATE = Integer.getInteger("loadtest.rate", 50);
+
+	/** The duration of the users phase in seconds. */
+	private static final int DURATION_SEC = Integer.getInteger("loadtest.durationSec", 20);
+
+	/** The allowed ratio of the measured latency to the baseline. */
+	private static final double TOLERANCE = Double.parseDouble(System.getProperty("loadtest.tolerance", "1.5"));
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(new ServerSetup(3027, null, ServerSetup.PROTOCOL_SMTP));
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UserServiceToRepo userServiceToRepo;
+
+	@Test
+	void meetsLatencyBaseline() throws Exception {
+		LoadGenerator generator = new LoadGenerator(RATE);
+		List<User> users = userServiceToRepo.getUsersAfter(Long.MIN_VALUE, 1000);
+
+		// the request of the email of no user is only queued, it warms up the endpoint
+		// that is measured first without sending the mail, its latency is not kept
+		new LoadGenerator(RATE).run(users.size(), i -> new Call("warm-up",
+				post("/api/v1/auth/request-otp", "{\"email\":\"warm-up" + i + "@ukr.net\"}", null), 202, null));
+
+		// request OTP for every user and capture them from the mail sink
+		generator.run(users.size(), i -> new Call("request-otp",
+				post("/api/v1/auth/request-otp", "{\"email\":\"" + users.get(i).getEmail() + "\"}", null), 202,
+				null));
+		assertTrue(smtp.waitForIncomingEmail(30000, users.size()), "Not all OTP emails were received");
+		Map<String, String> otps = new ConcurrentHashMap<>();
+		for (MimeMessage message : smtp.getReceivedMessages()) {
+			String body = GreenMailUtil.getBody(message);
+			otps.put(message.getAllRecipients()[0].toString(),
+					body.substring(body.indexOf("One-time password: ") + 19).trim());
+		}
+
+		// login every user with the captured OTP
+		Queue<String> issued = new ConcurrentLinkedQueue<>();
+		generator.run(users.size(), i -> {
+			String email = users.get(i).getEmail();
+			return new Call("login", post("/api/v1/auth/login",
+					"{\"email\":\"" + email + "\",\"password\":\"" + otps.get(email) + "\"}", null), 200,
+					response -> issued.add(response.body()));
+		});
+		List<String> tokens = new ArrayList<>(issued);
+		assertEquals(users.size(), tokens.size(), "Not all users logged in");
+
+		// the mix of users CRUD requests
+		Queue<String> created = new ConcurrentLinkedQueue<>();
+		generator.run(RATE * DURATION_SEC, i -> {
+			String token = tokens.get(i % tokens.size());
+			long userId = users.get(i * 31 % users.size()).getId();
+			switch (i % 10) {
+			case 5:
+			case 6:
+				return new Call("list-users", get("/api/v1/users?size=20&after=" + userId, token), 200, null);
+			case 7:
+				return new Call("create-user", post("/api/v1/users", "{\"email\":\"load" + i
+						+ "@ukr.net\",\"name\":\"Load\",\"lastName\":\"Tester\",\"birthDay\":\"1980-01-31\","
+						+ "\"maritalStatus\":\"SINGLE\"}", token), 201,
+						response -> response.headers().firstValue("Location").ifPresent(created::add));
+			case 8:
+				return new Call("update-user", HttpRequest.newBuilder(uri("/api/v1/users/" + userId))
+						.header("Content-Type", "application/json")
+						.header("Authorization", token)
+						.PUT(HttpRequest.BodyPublishers.ofString("{\"name\":\"Updated" + i + "\"}"))
+						.build(), 200, null);
+			case 9:
+				String location = created.poll();
+				if (location != null) {
+					return new Call("delete-user", HttpRequest.newBuilder(URI.create(location))
+							.header("Content-Type", "application/json")
+							.header("Authorization", token)
+							.DELETE()
+							.build(), 204, null);
+				}
+				// nothing to delete yet, read the user instead
+			default:
+				return new Call("get-user", get("/api/v1/users/" + userId, token), 200, null);
+			}
+		});
+
+		Map<String, Histogram> histograms = generator.getHistograms();
+		report(histograms);
+		LatencyBaseline.write(histograms, Path.of("target", "loadtest", "latency.properties"));
+
+		assertEquals(Map.of(), generator.getErrors(), "Unexpected responses by endpoint");
+		List<String> regressions = LatencyBaseline.load("/loadtest/baseline.properties")
+				.regressions(histograms, TOLERANCE);
+		assertTrue(regressions.isEmpty(), "Latency regressions: " + regressions);
+	}
+
+	/**
+	 * Prints the latencies of each endpoint.
+	 *
+	 * @param histograms the histograms by endpoint
+	 */
+	private static void report(Map<String, Histogram> histograms) {
+		System.out.printf("%-12s %8s %10s %10s %10s %10s%n", "endpoint", "count", "p50 ms", "p99 ms", "p999 ms",
+				"max ms");
+		histograms.forEach((endpoint, h) -> System.out.printf("%-12s %8d %10.2f %10.2f %10.2f %10.2f%n", endpoint,
+				h.getTotalCount(), LatencyBaseline.millis(h, 50.0), LatencyBaseline.millis(h, 99.0),
+				LatencyBaseline.millis(h, 99.9), h.getMaxValue() / 1000.0));
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private HttpRequest get(String path, String token) {
+		return HttpRequest.newBuilder(uri(path))
+				.header("Content-Type", "application/json")
+				.header("Accept", "application/json")
+				.header("Authorization", token)
+				.GET()
+				.build();
+	}
+
+	private HttpRequest post(String path, String body, String token) {
+		HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+				.header("Content-Type", "application/json")
+				.header("Accept", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(body));
+		if (token != null) {
+			builder.header("Authorization", token);
+		}
+		return builder.build();
+	}
+
+}
@@ -0,0 +1,73 @@
+package depavlo.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import depavlo.OtpDemoApplication;
+import depavlo.repo.UserRepository;
+import depavlo.util.MaritalStatus;
+
+@SpringBootTest(classes = { OtpDemoApplication.class }, properties = {
+		"spring.datasource.url=jdbc:h2:mem:idtest;DB_CLOSE_DELAY=-1", "app.db.idAllocationSize=10",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+@ActiveProfiles("dev")
+class PooledLoSequenceGeneratorTests {
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void allocatesIdsByBlocksAfterSeededUsersAndBatchesInserts() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		List<User> users = new ArrayList<>();
+		for (int i = 0; i < 25; i++) {
+			User user = new User();
+			user.setEmail("pooled" + i + "@ukr.net");
+			user.setName("Pooled");
+			user.setLastName("User");
+			user.setBirthDay(LocalDate.of(1990, 1, 1));
+			user.setMaritalStatus(MaritalStatus.SINGLE);
+			users.add(user);
+		}
+		transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(users));
+
+		// the ids continue after the 100 seeded users without gaps
+		assertEquals(LongStream.rangeClosed(101, 125).boxed().collect(Collectors.toList()),
+				users.stream().map(User::getId).collect(Collectors.toList()));
+		// three sequence calls reserved the blocks 101, 111 and 121 of 10 ids
+		assertEquals(121L, jdbcTemplate.queryForObject(
+				"SELECT CURRENT_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'USERS_SEQ'",
+				Long.class));
+		// the three sequence calls and the one insert sent in the JDBC batch
+		assertEquals(25, statistics.getEntityInsertCount());
+		assertEquals(4, statistics.getPrepareStatementCount());
+	}
+
+}
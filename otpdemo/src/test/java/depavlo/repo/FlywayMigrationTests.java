@@ -0,0 +1,61 @@
+package depavlo.repo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The migrations of one database by the default and the dev profiles.
+ */
+class FlywayMigrationTests {
+
+	private static final String URL = "jdbc:h2:mem:flywaytest;DB_CLOSE_DELAY=-1";
+
+	@Test
+	void switchesProfilesOnMigratedDatabase() throws Exception {
+		Flyway defaultProfile = flyway("classpath:db/migration");
+		Flyway devProfile = flyway("classpath:db/migration", "classpath:db/seed");
+
+		defaultProfile.migrate();
+		assertEquals(0, queryLong(defaultProfile, "SELECT COUNT(*) FROM users"));
+
+		devProfile.migrate();
+		assertEquals(100, queryLong(devProfile, "SELECT COUNT(*) FROM users"));
+		long next = queryLong(devProfile, "SELECT NEXT VALUE FOR users_seq");
+		assertTrue(next > 100, "users_seq continues after the seeded users");
+
+		defaultProfile.validate();
+		defaultProfile.migrate();
+		devProfile.validate();
+		devProfile.migrate();
+		assertEquals(100, queryLong(devProfile, "SELECT COUNT(*) FROM users"));
+		assertTrue(queryLong(devProfile, "SELECT NEXT VALUE FOR users_seq") > next,
+				"users_seq does not go back");
+	}
+
+	private static Flyway flyway(String... locations) {
+		return Flyway.configure()
+				.dataSource(URL, "test", "test")
+				.locations(locations)
+				.placeholders(Map.of("idAllocationSize", "50"))
+				.load();
+	}
+
+	private static long queryLong(Flyway flyway, String sql) throws SQLException {
+		try (Connection connection = flyway.getConfiguration().getDataSource().getConnection();
+				Statement statement = connection.createStatement();
+				ResultSet resultSet = statement.executeQuery(sql)) {
+			resultSet.next();
+			return resultSet.getLong(1);
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+package depavlo.repo.serviceimpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import depavlo.model.Otp;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InMemoryOtpServiceToRepoTests {
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private InMemoryOtpServiceToRepo repo;
+
+	@BeforeEach
+	void start() {
+		repo = new InMemoryOtpServiceToRepo(meterRegistry);
+		ReflectionTestUtils.invokeMethod(repo, "start");
+	}
+
+	@AfterEach
+	void stop() {
+		ReflectionTestUtils.invokeMethod(repo, "stop");
+	}
+
+	@Test
+	void sweeperSkipsReplacedOtp() throws Exception {
+		long now = System.currentTimeMillis();
+		repo.save(otp("user@ukr.net", now + 100));
+		Otp replacement = repo.save(otp("user@ukr.net", now + 60000)).get();
+		repo.save(otp("other@ukr.net", now + 200));
+
+		// the queue hands out the expirations in order, so the replaced one is swept first
+		for (int i = 0; i < 50 && meterRegistry.find("otp.expired").counter() == null; i++) {
+			Thread.sleep(100);
+		}
+
+		assertTrue(repo.loadOtpByUsername("other@ukr.net").isEmpty());
+		assertEquals(replacement, repo.loadOtpByUsername("user@ukr.net").get());
+		assertEquals(1.0, meterRegistry.get("otp.expired").counter().count());
+	}
+
+	@Test
+	void consumesOtpOnlyOnce() {
+		Otp otp = repo.save(otp("user@ukr.net", System.currentTimeMillis() + 60000)).get();
+
+		assertTrue(repo.consume(otp));
+		assertFalse(repo.consume(otp));
+		assertTrue(repo.loadOtpByUsername("user@ukr.net").isEmpty());
+	}
+
+	@Test
+	void replacesOnlyStoredOtp() {
+		long expired = System.currentTimeMillis() + 60000;
+		Otp stale = repo.save(otp("user@ukr.net", expired)).get();
+		Otp current = repo.save(otp("user@ukr.net", expired)).get();
+		Otp other = repo.save(otp("other@ukr.net", expired)).get();
+
+		repo.replaceAll(List.of(stale, other), List.of());
+
+		assertEquals(current, repo.loadOtpByUsername("user@ukr.net").get());
+		assertTrue(repo.loadOtpByUsername("other@ukr.net").isEmpty());
+	}
+
+	@Test
+	void matchesStoredOtpById() {
+		long expired = System.currentTimeMillis() + 60000;
+		Otp stored = repo.save(otp("user@ukr.net", expired)).get();
+
+		// the OTP with other id is not the stored one, even with the same fields
+		Otp sameFields = otp("user@ukr.net", expired);
+		sameFields.setId(stored.getId() + 1);
+		assertFalse(repo.consume(sameFields));
+
+		// the copy with the same id is the stored one
+		Otp copy = otp("USER@ukr.net", expired);
+		copy.setId(stored.getId());
+		assertTrue(repo.consume(copy));
+	}
+
+	private static Otp otp(String email, long expired) {
+		Otp otp = new Otp();
+		otp.setEmail(email);
+		otp.setPassword("hash");
+		otp.setExpired(new Date(expired));
+		return otp;
+	}
+
+}
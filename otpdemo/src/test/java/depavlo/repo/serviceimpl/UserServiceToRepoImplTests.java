@@ -0,0 +1,114 @@
+package depavlo.repo.serviceimpl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import depavlo.OtpDemoApplication;
+import depavlo.model.User;
+import depavlo.service.UserServiceToRepo;
+import depavlo.store.SharedStore;
+import depavlo.util.MaritalStatus;
+
+@SpringBootTest(classes = { OtpDemoApplication.class }, properties = {
+		"spring.datasource.url=jdbc:h2:mem:usercachetest;DB_CLOSE_DELAY=-1" })
+class UserServiceToRepoImplTests {
+
+	@Autowired
+	private UserServiceToRepo userServiceToRepo;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private SharedStore sharedStore;
+
+	@Test
+	void cachesNotFoundUser() {
+		assertTrue(userServiceToRepo.loadUserByUsername("absent@ukr.net").isEmpty());
+
+		// the row inserted past the repository does not invalidate the cached absence
+		jdbcTemplate.update("INSERT INTO users (user_id,email,name,last_name,birth_day,marital_status) "
+				+ "VALUES (NEXT VALUE FOR users_seq,'absent@ukr.net','Absent','User','1990-01-01','SINGLE')");
+		assertTrue(userServiceToRepo.loadUserByUsername("ABSENT@ukr.net").isEmpty());
+
+		// the user saved by the repository replaces the cached absence
+		userServiceToRepo.saveUser(user("found@ukr.net", "Found"));
+		assertTrue(userServiceToRepo.loadUserByUsername("found@ukr.net").isPresent());
+	}
+
+	@Test
+	void invalidatesUserOnSaveAndDelete() {
+		User saved = userServiceToRepo.saveUser(user("saved@ukr.net", "Before")).get();
+		assertEquals("Before", userServiceToRepo.loadUserByUsername("saved@ukr.net").get().getName());
+
+		saved.setName("After");
+		userServiceToRepo.saveUser(saved);
+		assertEquals("After", userServiceToRepo.loadUserByUsername("saved@ukr.net").get().getName());
+
+		userServiceToRepo.deleteUserById(saved.getId());
+		assertTrue(userServiceToRepo.loadUserByUsername("saved@ukr.net").isEmpty());
+	}
+
+	@Test
+	void invalidatesUserAfterCommit() {
+		User saved = userServiceToRepo.saveUser(user("committed@ukr.net", "Before")).get();
+
+		transactionTemplate.executeWithoutResult(status -> {
+			saved.setName("After");
+			userServiceToRepo.saveUser(saved);
+			// the concurrent lookup caches the state that was read before the commit
+			assertEquals("Before", CompletableFuture
+					.supplyAsync(() -> userServiceToRepo.loadUserByUsername("committed@ukr.net").get().getName())
+					.join());
+		});
+
+		assertEquals("After", userServiceToRepo.loadUserByUsername("committed@ukr.net").get().getName());
+	}
+
+	@Test
+	void invalidatesUserChangedByOtherInstance() {
+		userServiceToRepo.saveUser(user("shared@ukr.net", "Before"));
+		assertEquals("Before", userServiceToRepo.loadUserByUsername("shared@ukr.net").get().getName());
+
+		// the other instance changes the user and publishes its email
+		jdbcTemplate.update("UPDATE users SET name = 'After' WHERE email = 'shared@ukr.net'");
+		assertEquals("Before", userServiceToRepo.loadUserByUsername("shared@ukr.net").get().getName());
+		sharedStore.publish("users", "shared@ukr.net");
+		assertEquals("After", userServiceToRepo.loadUserByUsername("shared@ukr.net").get().getName());
+	}
+
+	@Test
+	void handsOutCopiesOfCachedUser() {
+		userServiceToRepo.saveUser(user("copied@ukr.net", "Cached"));
+		User first = userServiceToRepo.loadUserByUsername("copied@ukr.net").get();
+		first.setName("Changed");
+
+		User second = userServiceToRepo.loadUserByUsername("copied@ukr.net").get();
+		assertNotSame(first, second);
+		assertEquals("Cached", second.getName());
+	}
+
+	private static User user(String email, String name) {
+		User user = new User();
+		user.setEmail(email);
+		user.setName(name);
+		user.setLastName("User");
+		user.setBirthDay(LocalDate.of(1990, 1, 1));
+		user.setMaritalStatus(MaritalStatus.SINGLE);
+		return user;
+	}
+
+}
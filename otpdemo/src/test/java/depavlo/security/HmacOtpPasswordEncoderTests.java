@@ -0,0 +1,55 @@
+package depavlo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class HmacOtpPasswordEncoderTests {
+
+	private final HmacOtpPasswordEncoder encoder = new HmacOtpPasswordEncoder(
+			"test pepper".getBytes(StandardCharsets.UTF_8));
+
+	@Test
+	void matchesEncodedPassword() {
+		String password = UUID.randomUUID().toString();
+		String encoded = encoder.encode(password);
+
+		assertEquals(encoded, encoder.encode(password));
+		assertTrue(encoder.matches(password, encoded));
+		assertFalse(encoder.matches(UUID.randomUUID().toString(), encoded));
+	}
+
+	@Test
+	void hashDependsOnSecret() {
+		HmacOtpPasswordEncoder other = new HmacOtpPasswordEncoder("other pepper".getBytes(StandardCharsets.UTF_8));
+		String password = UUID.randomUUID().toString();
+
+		assertNotEquals(encoder.encode(password), other.encode(password));
+		assertFalse(other.matches(password, encoder.encode(password)));
+	}
+
+	@Test
+	void hashesConcurrentlyWithoutSharingMac() {
+		String password = UUID.randomUUID().toString();
+		String encoded = encoder.encode(password);
+
+		assertTrue(IntStream.range(0, 1000).parallel()
+				.mapToObj(i -> encoder.encode(password))
+				.allMatch(encoded::equals));
+		assertEquals(encoded, encoder.encode(password));
+	}
+
+	@Test
+	void rejectsMalformedHash() {
+		assertFalse(encoder.matches("password", "not base64 !"));
+		assertFalse(encoder.matches("password", null));
+	}
+
+}
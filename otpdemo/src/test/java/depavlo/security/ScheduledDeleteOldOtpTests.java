@@ -0,0 +1,56 @@
+package depavlo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import depavlo.OtpDemoApplication;
+import depavlo.model.Otp;
+import depavlo.service.OtpServiceToRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(classes = { OtpDemoApplication.class }, properties = {
+		"spring.datasource.url=jdbc:h2:mem:purgetest;DB_CLOSE_DELAY=-1", "app.otp.purge.chunkSize=10",
+		"app.otp.purge.pauseMsec=1" })
+class ScheduledDeleteOldOtpTests {
+
+	@Autowired
+	private ScheduledDeleteOldOtp scheduledDeleteOldOtp;
+
+	@Autowired
+	private OtpServiceToRepo otpServiceToRepo;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void deletesExpiredOtpByChunks() {
+		long now = System.currentTimeMillis();
+		for (int i = 0; i < 25; i++) {
+			otpServiceToRepo.save(otp("expired" + i + "@ukr.net", new Date(now - 60000)));
+		}
+		otpServiceToRepo.save(otp("valid@ukr.net", new Date(now + 60000)));
+
+		scheduledDeleteOldOtp.deleteOldOtp();
+
+		for (int i = 0; i < 25; i++) {
+			assertTrue(otpServiceToRepo.loadOtpByUsername("expired" + i + "@ukr.net").isEmpty());
+		}
+		assertTrue(otpServiceToRepo.loadOtpByUsername("valid@ukr.net").isPresent());
+		assertEquals(25.0, meterRegistry.get("otp.purge.rows").summary().totalAmount());
+	}
+
+	private static Otp otp(String email, Date expired) {
+		Otp otp = new Otp();
+		otp.setEmail(email);
+		otp.setPassword("hash");
+		otp.setExpired(expired);
+		return otp;
+	}
+
+}
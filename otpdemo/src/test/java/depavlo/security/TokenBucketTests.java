@@ -0,0 +1,38 @@
+package depavlo.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTests {
+
+	private static final long INTERVAL = 1000;
+
+	@Test
+	void allowsBurstUpToCapacity() {
+		TokenBucket bucket = new TokenBucket(0);
+
+		assertEquals(0, bucket.tryAcquire(0, INTERVAL, 3));
+		assertEquals(0, bucket.tryAcquire(0, INTERVAL, 3));
+		assertEquals(0, bucket.tryAcquire(0, INTERVAL, 3));
+		assertEquals(INTERVAL, bucket.tryAcquire(0, INTERVAL, 3));
+	}
+
+	@Test
+	void refillsOneTokenPerInterval() {
+		TokenBucket bucket = new TokenBucket(0);
+		for (int i = 0; i < 3; i++) {
+			bucket.tryAcquire(0, INTERVAL, 3);
+		}
+
+		assertEquals(400, bucket.tryAcquire(600, INTERVAL, 3));
+		assertEquals(0, bucket.tryAcquire(1000, INTERVAL, 3));
+		assertEquals(INTERVAL, bucket.tryAcquire(1000, INTERVAL, 3));
+		// the idle bucket does not collect more tokens than its capacity
+		assertEquals(0, bucket.tryAcquire(100000, INTERVAL, 3));
+		assertEquals(0, bucket.tryAcquire(100000, INTERVAL, 3));
+		assertEquals(0, bucket.tryAcquire(100000, INTERVAL, 3));
+		assertEquals(INTERVAL, bucket.tryAcquire(100000, INTERVAL, 3));
+	}
+
+}
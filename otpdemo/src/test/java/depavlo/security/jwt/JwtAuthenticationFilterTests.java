@@ -0,0 +1,68 @@
+package depavlo.security.jwt;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import depavlo.OtpDemoApplication;
+import depavlo.model.User;
+import depavlo.security.UserPrincipal;
+import depavlo.service.UserServiceToRepo;
+import depavlo.util.MaritalStatus;
+
+@SpringBootTest(classes = { OtpDemoApplication.class }, properties = {
+		"spring.datasource.url=jdbc:h2:mem:filtertest;DB_CLOSE_DELAY=-1", "app.auth.statelessPrincipal=true" })
+@AutoConfigureMockMvc
+class JwtAuthenticationFilterTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private UserServiceToRepo userServiceToRepo;
+
+	@Autowired
+	private JwtTokenProvider jwtTokenProvider;
+
+	@Value("${app.auth.tokenPrefix}")
+	private String tokenPrefix;
+
+	@Test
+	void rejectsTokenOfDeletedUserInStatelessMode() throws Exception {
+		User user = new User();
+		user.setEmail("deleted@ukr.net");
+		user.setName("Deleted");
+		user.setLastName("User");
+		user.setBirthDay(LocalDate.of(1990, 1, 1));
+		user.setMaritalStatus(MaritalStatus.SINGLE);
+		Long id = userServiceToRepo.saveUser(user).get().getId();
+
+		UserDetails principal = new UserPrincipal(user.getEmail(), "");
+		String token = tokenPrefix + jwtTokenProvider
+				.createToken(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+		mvc.perform(getUser(id, token)).andExpect(status().isOk());
+
+		// the token is verified and cached, but the principal needs the user to exist
+		userServiceToRepo.deleteUserById(id);
+		mvc.perform(getUser(id, token)).andExpect(status().isForbidden());
+	}
+
+	private static MockHttpServletRequestBuilder getUser(Long id, String token) {
+		return get("/api/v1/users/" + id).header(HttpHeaders.AUTHORIZATION, token)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON);
+	}
+
+}
@@ -0,0 +1,94 @@
+package depavlo.security.jwt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class JwtTokenCacheTests {
+
+	/** The max age of the token, the claims keep the dates in seconds. */
+	private static final int MAX_AGE = 2000;
+
+	private JwtTokenCache jwtTokenCache;
+
+	@BeforeEach
+	void createCache() {
+		jwtTokenCache = new JwtTokenCache(new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(jwtTokenCache, "tokenExpirationMsec", MAX_AGE);
+		ReflectionTestUtils.setField(jwtTokenCache, "tokenCacheMaxSize", 2L);
+		ReflectionTestUtils.invokeMethod(jwtTokenCache, "init");
+	}
+
+	@Test
+	void evictsTokenAtExpirationOrMaxAge() throws Exception {
+		long issuedAt = nextSecond();
+		jwtTokenCache.put("expiring", token("expiring", issuedAt, issuedAt + 1000));
+		jwtTokenCache.put("aging", token("aging", issuedAt, issuedAt + 60000));
+		assertNotNull(jwtTokenCache.get("expiring"));
+		assertNotNull(jwtTokenCache.get("aging"));
+
+		// the expiration comes before the max age
+		sleepUntil(issuedAt + 1200);
+		assertNull(jwtTokenCache.get("expiring"));
+		assertNotNull(jwtTokenCache.get("aging"));
+
+		// the max age comes before the expiration
+		sleepUntil(issuedAt + MAX_AGE + 200);
+		assertNull(jwtTokenCache.get("aging"));
+	}
+
+	@Test
+	void skipsInvalidToken() {
+		long issuedAt = nextSecond() - 1000;
+		jwtTokenCache.put("expired", token("expired", issuedAt - 1000, issuedAt - 1000));
+		jwtTokenCache.put("tooOld", token("tooOld", issuedAt - MAX_AGE - 1000, issuedAt + 60000));
+
+		assertNull(jwtTokenCache.get("expired"));
+		assertNull(jwtTokenCache.get("tooOld"));
+	}
+
+	@Test
+	void keepsNoMoreThanMaxSize() {
+		long issuedAt = nextSecond();
+		for (int i = 0; i < 10; i++) {
+			jwtTokenCache.put("token" + i, token("user" + i + "@ukr.net", issuedAt, issuedAt + 60000));
+		}
+
+		Cache<?, ?> cache = (Cache<?, ?>) ReflectionTestUtils.getField(jwtTokenCache, "cache");
+		cache.cleanUp();
+		assertEquals(2, cache.estimatedSize());
+	}
+
+	/**
+	 * The next second, the issue date of the token that is not yet older than the
+	 * max age after the truncation to seconds.
+	 */
+	private static long nextSecond() {
+		return (System.currentTimeMillis() / 1000 + 1) * 1000;
+	}
+
+	private static void sleepUntil(long moment) throws InterruptedException {
+		Thread.sleep(Math.max(moment - System.currentTimeMillis(), 0));
+	}
+
+	private static VerifiedToken token(String subject, long issuedAt, long expiration) {
+		Claims claims = Jwts.claims()
+				.setSubject(subject)
+				.setIssuedAt(new Date(issuedAt))
+				.setExpiration(new Date(expiration));
+		return new VerifiedToken(claims);
+	}
+
+}
@@ -0,0 +1,83 @@
+package depavlo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetup;
+
+import depavlo.OtpDemoApplication;
+import depavlo.model.Otp;
+import depavlo.ui.rest.v1.model.response.OtpRequestResult;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(classes = { OtpDemoApplication.class }, properties = {
+		"spring.datasource.url=jdbc:h2:mem:otpissuertest;DB_CLOSE_DELAY=-1", "spring.mail.port=3030",
+		"spring.flyway.locations=classpath:db/migration,classpath:db/seed" })
+class OtpIssuerTests {
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(new ServerSetup(3030, null, ServerSetup.PROTOCOL_SMTP));
+
+	@Autowired
+	private UserServiceToRepo userServiceToRepo;
+
+	@Autowired
+	private OtpServiceToRepo otpServiceToRepo;
+
+	@Autowired
+	private PasswordEncoder passwordEncoder;
+
+	@Autowired
+	private OtpNotificationService otpNotificationService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void keepsOtpIssuedMeanwhile() throws Exception {
+		// the OTP is inserted after the issuer has read that the email has none
+		Otp concurrent = new Otp();
+		concurrent.setEmail("quam@sedhendrerit.ca");
+		concurrent.setPassword("concurrent");
+		concurrent.setExpired(new Date(System.currentTimeMillis() + 60000));
+		otpServiceToRepo.save(concurrent);
+		OtpServiceToRepo staleReads = (OtpServiceToRepo) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { OtpServiceToRepo.class }, (proxy, method, args) -> {
+					if (method.getName().equals("loadOtpsByUsernames")) {
+						return List.of();
+					}
+					try {
+						return method.invoke(otpServiceToRepo, args);
+					} catch (InvocationTargetException e) {
+						throw e.getCause();
+					}
+				});
+		OtpIssuer otpIssuer = new OtpIssuer(userServiceToRepo, staleReads, passwordEncoder, otpNotificationService,
+				meterRegistry);
+		ReflectionTestUtils.setField(otpIssuer, "tokenExpirationMsec", 60000);
+
+		Map<String, String> statuses = otpIssuer.issue(List.of("quam@sedhendrerit.ca", "risus.morbi@vitae.edu"));
+
+		assertEquals(Map.of("quam@sedhendrerit.ca", OtpRequestResult.PENDING, "risus.morbi@vitae.edu",
+				OtpRequestResult.ISSUED), statuses);
+		assertEquals("concurrent", otpServiceToRepo.loadOtpByUsername("quam@sedhendrerit.ca").get().getPassword());
+		assertTrue(otpServiceToRepo.loadOtpByUsername("risus.morbi@vitae.edu").isPresent());
+		assertTrue(smtp.waitForIncomingEmail(5000, 1));
+		assertEquals("risus.morbi@vitae.edu", smtp.getReceivedMessages()[0].getAllRecipients()[0].toString());
+	}
+
+}
@@ -0,0 +1,98 @@
+package depavlo.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.mail.internet.MimeMessage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetup;
+
+import depavlo.OtpDemoApplication;
+import depavlo.config.MailDispatchConfig;
+import depavlo.service.OtpNotificationService.Notification;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(classes = { OtpDemoApplication.class }, properties = {
+		"spring.datasource.url=jdbc:h2:mem:mailtest;DB_CLOSE_DELAY=-1", "spring.mail.port=3025",
+		"app.mail.dispatch.retryDelayMsec=200", "app.mail.batch.maxSize=3" })
+class OtpNotificationServiceTests {
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(new ServerSetup(3025, null, ServerSetup.PROTOCOL_SMTP));
+
+	@Autowired
+	private OtpNotificationService otpNotificationService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	@Qualifier(MailDispatchConfig.MAIL_DISPATCH_EXECUTOR)
+	private ThreadPoolTaskExecutor mailDispatchExecutor;
+
+	@Test
+	void sendsOtpToUser() throws Exception {
+		otpNotificationService.sendNotificationsToUsers(List.of(new Notification("User", "user@ukr.net", "secret-otp")));
+
+		MimeMessage message = awaitMessageContaining("One-time password: secret-otp");
+		assertEquals("user@ukr.net", message.getAllRecipients()[0].toString());
+	}
+
+	@Test
+	void retriesWhenSmtpIsDown() throws Exception {
+		smtp.stop();
+		otpNotificationService.sendNotificationsToUsers(List.of(new Notification("User", "user@ukr.net", "lost-otp")));
+		while (meterRegistry.timer("otp.mail.send", "outcome", "failure").count() == 0) {
+			Thread.sleep(5);
+		}
+		// the dispatch thread does not wait for the retry
+		for (int i = 0; i < 20 && mailDispatchExecutor.getActiveCount() > 0; i++) {
+			Thread.sleep(5);
+		}
+		assertEquals(0, mailDispatchExecutor.getActiveCount());
+		smtp.start();
+
+		awaitMessageContaining("One-time password: lost-otp");
+	}
+
+	@Test
+	void sendsGroupByBatches() throws Exception {
+		long batches = meterRegistry.summary("otp.mail.batch.size").count();
+		List<Notification> notifications = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			notifications.add(new Notification("User", "user" + i + "@ukr.net", "batch-otp-" + i));
+		}
+		otpNotificationService.sendNotificationsToUsers(notifications);
+
+		for (int i = 0; i < 5; i++) {
+			awaitMessageContaining("One-time password: batch-otp-" + i);
+		}
+		// the batches of 3 and 2 emails, each through one SMTP connection
+		assertEquals(batches + 2, meterRegistry.summary("otp.mail.batch.size").count());
+	}
+
+	private MimeMessage awaitMessageContaining(String text) throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			for (MimeMessage message : smtp.getReceivedMessages()) {
+				if (GreenMailUtil.getBody(message).contains(text)) {
+					return message;
+				}
+			}
+			Thread.sleep(10);
+		}
+		return fail("No email containing: " + text);
+	}
+
+}
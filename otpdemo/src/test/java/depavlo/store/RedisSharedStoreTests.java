@@ -0,0 +1,183 @@
+package depavlo.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.lettuce.core.KillArgs;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import redis.embedded.RedisServer;
+
+/**
+ * The Redis shared store of two instances against the embedded Redis server.
+ */
+class RedisSharedStoreTests {
+
+	private static int port;
+
+	private static RedisServer redisServer;
+
+	private static RedisClient adminClient;
+
+	private static StatefulRedisConnection<String, String> adminConnection;
+
+	private static RedisCommands<String, String> admin;
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	private RedisSharedStore first;
+
+	private RedisSharedStore second;
+
+	@BeforeAll
+	static void startServer() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		redisServer = new RedisServer(port);
+		redisServer.start();
+		adminClient = RedisClient.create("redis://localhost:" + port);
+		adminConnection = adminClient.connect();
+		admin = adminConnection.sync();
+	}
+
+	@AfterAll
+	static void stopServer() throws IOException {
+		adminConnection.close();
+		adminClient.shutdown();
+		redisServer.stop();
+	}
+
+	@BeforeEach
+	void startStores() {
+		admin.flushall();
+		first = store(new SimpleMeterRegistry());
+		second = store(meterRegistry);
+	}
+
+	@AfterEach
+	void stopStores() {
+		ReflectionTestUtils.invokeMethod(first, "stop");
+		ReflectionTestUtils.invokeMethod(second, "stop");
+	}
+
+	@Test
+	void sharesValues() {
+		first.set("key", "value", 60000);
+		assertEquals("value", second.get("key"));
+		assertEquals(Arrays.asList("value", null), second.getAll(List.of("key", "absent")));
+		assertEquals(1, first.increment("counter"));
+		assertEquals(2, second.increment("counter"));
+
+		assertTrue(second.delete("key"));
+		assertFalse(first.delete("key"));
+		assertNull(first.get("key"));
+	}
+
+	@Test
+	void expiresValueAfterTimeToLive() throws Exception {
+		first.set("key", "value", 200);
+		assertEquals("value", second.get("key"));
+
+		Thread.sleep(400);
+		assertNull(second.get("key"));
+	}
+
+	@Test
+	void deletesOnlyEqualValue() {
+		first.set("key", "value", 60000);
+
+		assertFalse(second.deleteIfEquals("key", "other"));
+		assertEquals("value", first.get("key"));
+		assertTrue(second.deleteIfEquals("key", "value"));
+		assertFalse(first.deleteIfEquals("key", "value"));
+		assertNull(first.get("key"));
+	}
+
+	@Test
+	void deliversPublishedMessages() throws Exception {
+		BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+		second.subscribe("channel", messages::add);
+
+		first.publish("channel", "message");
+		assertEquals("message", messages.poll(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void resetsNearCacheAfterLostSubscription() throws Exception {
+		NearCache<String> firstCache = new NearCache<>(first, "near", 100, 60000, new SimpleMeterRegistry());
+		NearCache<String> secondCache = new NearCache<>(second, "near", 100, 60000, new SimpleMeterRegistry());
+		CountDownLatch disconnected = new CountDownLatch(1);
+		second.subscribe("near", new SharedStore.Listener() {
+
+			@Override
+			public void onMessage(String message) {
+			}
+
+			@Override
+			public void onDisconnected() {
+				disconnected.countDown();
+			}
+		});
+
+		// the absence read while the subscriber is disconnected and the invalidation
+		// published meanwhile is lost
+		admin.clientKill(KillArgs.Builder.typePubsub());
+		assertTrue(disconnected.await(5, TimeUnit.SECONDS));
+		assertTrue(secondCache.get("key", second::get).isEmpty());
+		first.set("key", "value", 60000);
+		assertEquals(0, admin.publish("near", "key"));
+
+		// the near cache is cleared after the client subscribes the channel again
+		for (int i = 0; i < 50 && meterRegistry.counter("shared.store.reset").count() == 0; i++) {
+			Thread.sleep(100);
+		}
+		assertEquals(1, meterRegistry.counter("shared.store.reset").count());
+		Optional<String> value = secondCache.get("key", second::get);
+		assertEquals(Optional.of("value"), value);
+
+		// the invalidations are delivered again
+		first.delete("key");
+		firstCache.invalidate("key");
+		for (int i = 0; i < 50 && value.isPresent(); i++) {
+			Thread.sleep(100);
+			value = secondCache.get("key", second::get);
+		}
+		assertTrue(value.isEmpty());
+	}
+
+	private static RedisSharedStore store(MeterRegistry meterRegistry) {
+		RedisSharedStore store = new RedisSharedStore(meterRegistry);
+		ReflectionTestUtils.setField(store, "host", "localhost");
+		ReflectionTestUtils.setField(store, "port", port);
+		ReflectionTestUtils.setField(store, "password", "");
+		ReflectionTestUtils.setField(store, "database", 0);
+		ReflectionTestUtils.setField(store, "timeoutMsec", 2000);
+		ReflectionTestUtils.setField(store, "reconnectMsec", 1000L);
+		ReflectionTestUtils.invokeMethod(store, "start");
+		return store;
+	}
+
+}
@@ -0,0 +1,116 @@
+package depavlo.ui.rest.v1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import depavlo.OtpDemoApplication;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(classes = { OtpDemoApplication.class }, properties = {
+		"spring.datasource.url=jdbc:h2:mem:ratelimittest;DB_CLOSE_DELAY=-1",
+		"spring.flyway.locations=classpath:db/migration,classpath:db/seed",
+		"app.otp.rateLimit.request.emailCapacity=2", "app.otp.rateLimit.request.emailPerMinute=1",
+		"app.otp.rateLimit.login.ipCapacity=2", "app.otp.rateLimit.login.ipPerMinute=1" })
+@AutoConfigureMockMvc
+class AuthRateLimitTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.auth.tokenSecret}")
+	private String tokenSecret;
+
+	@Test
+	void rejectsOtpRequestsOverEmailLimit() throws Exception {
+		mvc.perform(otpRequest("nobody@ukr.net", "10.0.0.1")).andExpect(status().isAccepted());
+		mvc.perform(otpRequest("NOBODY@ukr.net", "10.0.0.2")).andExpect(status().isAccepted());
+
+		mvc.perform(otpRequest("nobody@ukr.net", "10.0.0.3"))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().string(HttpHeaders.RETRY_AFTER, "60"));
+		mvc.perform(otpRequest("somebody@ukr.net", "10.0.0.3")).andExpect(status().isAccepted());
+
+		assertEquals(1.0, meterRegistry.get("otp.ratelimit").tag("operation", "request").tag("key", "email")
+				.tag("decision", "rejected").counter().count());
+	}
+
+	@Test
+	void limitsEachEmailOfOtpBatch() throws Exception {
+		mvc.perform(otpRequest("batch@ukr.net", "10.0.2.1")).andExpect(status().isAccepted());
+		mvc.perform(otpRequest("batch@ukr.net", "10.0.2.1")).andExpect(status().isAccepted());
+
+		Date issued = new Date();
+		String token = "Bearer_" + Jwts.builder()
+				.setSubject("user@ukr.net")
+				.claim("scopes", List.of("ROLE_USER"))
+				.setId(UUID.randomUUID().toString())
+				.setIssuedAt(issued)
+				.setExpiration(new Date(issued.getTime() + 86400000L))
+				.signWith(SignatureAlgorithm.HS512, TextCodec.BASE64.decode(tokenSecret))
+				.compact();
+		mvc.perform(post("/api/v1/auth/request-otp/batch").header(HttpHeaders.AUTHORIZATION, token)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content("{\"emails\":[\"BATCH@ukr.net\",\"other@ukr.net\"]}")
+				.with(request -> {
+					request.setRemoteAddr("10.0.2.2");
+					return request;
+				}))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.results[0].status").value("limited"))
+				.andExpect(jsonPath("$.results[1].status").value("unknown"));
+	}
+
+	@Test
+	void rejectsLoginsOverIpLimitBeforeCheckingOtp() throws Exception {
+		mvc.perform(login("first@ukr.net", "10.0.1.1")).andExpect(status().isForbidden());
+		mvc.perform(login("second@ukr.net", "10.0.1.1")).andExpect(status().isForbidden());
+
+		mvc.perform(login("third@ukr.net", "10.0.1.1")).andExpect(status().isTooManyRequests());
+		mvc.perform(login("third@ukr.net", "10.0.1.2")).andExpect(status().isForbidden());
+
+		assertEquals(1.0, meterRegistry.get("otp.ratelimit").tag("operation", "login").tag("key", "ip")
+				.tag("decision", "rejected").counter().count());
+	}
+
+	private static MockHttpServletRequestBuilder otpRequest(String email, String clientIp) {
+		return post("/api/v1/auth/request-otp").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"" + email + "\"}")
+				.with(request -> {
+					request.setRemoteAddr(clientIp);
+					return request;
+				});
+	}
+
+	private static MockHttpServletRequestBuilder login(String email, String clientIp) {
+		return post("/api/v1/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"" + email + "\",\"password\":\"000000\"}")
+				.with(request -> {
+					request.setRemoteAddr(clientIp);
+					return request;
+				});
+	}
+
+}
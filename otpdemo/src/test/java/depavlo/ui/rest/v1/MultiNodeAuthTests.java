@@ -0,0 +1,112 @@
+package depavlo.ui.rest.v1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetup;
+
+import depavlo.OtpDemoApplication;
+
+/**
+ * Two instances of the application in one JVM that share the OTP and the token
+ * revocations through the embedded shared store.
+ */
+class MultiNodeAuthTests {
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(new ServerSetup(3029, null, ServerSetup.PROTOCOL_SMTP));
+
+	private static final HttpClient httpClient = HttpClient.newHttpClient();
+
+	private static ConfigurableApplicationContext first;
+
+	private static ConfigurableApplicationContext second;
+
+	@BeforeAll
+	static void startNodes() {
+		first = startNode();
+		second = startNode();
+	}
+
+	@AfterAll
+	static void stopNodes() {
+		second.close();
+		first.close();
+	}
+
+	@Test
+	void sharesOtpAndRevocationBetweenNodes() throws Exception {
+		assertEquals(202, post(first, "/api/v1/auth/request-otp", null, "{\"email\":\"user@ukr.net\"}").statusCode());
+		assertTrue(smtp.waitForIncomingEmail(5000, 1));
+		String body = GreenMailUtil.getBody(smtp.getReceivedMessages()[0]);
+		String otp = body.substring(body.indexOf("One-time password: ") + 19).trim();
+		String login = "{\"email\":\"user@ukr.net\",\"password\":\"" + otp + "\"}";
+
+		// the OTP issued by the first node is consumed by the second one only once
+		HttpResponse<String> loggedIn = post(second, "/api/v1/auth/login", null, login);
+		assertEquals(200, loggedIn.statusCode());
+		assertEquals(403, post(first, "/api/v1/auth/login", null, login).statusCode());
+
+		String token = loggedIn.body();
+		assertEquals(200, get(first, "/api/v1/users/1", token).statusCode());
+		assertEquals(200, get(second, "/api/v1/users/1", token).statusCode());
+
+		// the token revoked by the second node is dropped from the near cache of the first one
+		assertEquals(200, post(second, "/api/v1/auth/logout", token, "").statusCode());
+		assertEquals(403, get(first, "/api/v1/users/1", token).statusCode());
+		assertEquals(403, get(second, "/api/v1/users/1", token).statusCode());
+		assertEquals(403, post(first, "/api/v1/auth/logout", token, "").statusCode());
+	}
+
+	private static ConfigurableApplicationContext startNode() {
+		return new SpringApplicationBuilder(OtpDemoApplication.class)
+				.profiles("dev")
+				.run("--server.port=0", "--spring.datasource.url=jdbc:h2:mem:multinodetest;DB_CLOSE_DELAY=-1",
+						"--spring.mail.port=3029", "--app.otp.rateLimit.enabled=false",
+						"--app.otp.store=shared", "--app.store.type=embedded", "--app.store.embedded.hub=multinodetest");
+	}
+
+	private static HttpResponse<String> post(ConfigurableApplicationContext node, String path, String token,
+			String json) throws Exception {
+		HttpRequest.Builder request = HttpRequest.newBuilder(uri(node, path))
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+				.POST(HttpRequest.BodyPublishers.ofString(json));
+		if (token != null) {
+			request.header(HttpHeaders.AUTHORIZATION, token);
+		}
+		return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static HttpResponse<String> get(ConfigurableApplicationContext node, String path, String token)
+			throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(uri(node, path))
+				.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+				.header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+				.header(HttpHeaders.AUTHORIZATION, token)
+				.GET()
+				.build();
+		return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private static URI uri(ConfigurableApplicationContext node, String path) {
+		return URI.create("http://localhost:" + node.getEnvironment().getProperty("local.server.port") + path);
+	}
+
+}
@@ -0,0 +1,256 @@
+package depavlo.ui.rest.v1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.GreenMailUtil;
+import com.icegreen.greenmail.util.ServerSetup;
+
+import depavlo.OtpDemoApplication;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest(classes = { OtpDemoApplication.class }, properties = {
+		"spring.datasource.url=jdbc:h2:mem:userstest;DB_CLOSE_DELAY=-1", "spring.mail.port=3026",
+		"app.otp.rateLimit.enabled=false" })
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+class UsersControllerTests {
+
+	@RegisterExtension
+	static GreenMailExtension smtp = new GreenMailExtension(new ServerSetup(3026, null, ServerSetup.PROTOCOL_SMTP));
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.auth.tokenSecret}")
+	private String tokenSecret;
+
+	private String otp;
+
+	private String token;
+
+	@BeforeEach
+	void login() throws Exception {
+		mvc.perform(post("/api/v1/auth/request-otp").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"user@ukr.net\"}"))
+				.andExpect(status().is2xxSuccessful());
+		assertTrue(smtp.waitForIncomingEmail(5000, 1));
+		String body = GreenMailUtil.getBody(smtp.getReceivedMessages()[0]);
+		otp = body.substring(body.indexOf("One-time password: ") + 19).trim();
+
+		token = mvc.perform(post("/api/v1/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"user@ukr.net\",\"password\":\"" + otp + "\"}"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+	}
+
+	@Test
+	void listsUsersByPages() throws Exception {
+		mvc.perform(get("/api/v1/users").param("size", "40").header(HttpHeaders.AUTHORIZATION, token)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.users.length()").value(40))
+				.andExpect(jsonPath("$.next").value(40));
+
+		mvc.perform(get("/api/v1/users").param("after", "80").param("size", "40")
+				.header(HttpHeaders.AUTHORIZATION, token)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.users.length()").value(20))
+				.andExpect(jsonPath("$.users[0].id").value(81))
+				.andExpect(jsonPath("$.next").doesNotExist());
+	}
+
+	@Test
+	void streamsAllUsers() throws Exception {
+		MvcResult result = mvc.perform(get("/api/v1/users/stream").header(HttpHeaders.AUTHORIZATION, token))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		mvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(100))
+				.andExpect(jsonPath("$[99].email").value("elementum@condimentum.edu"));
+	}
+
+	@Test
+	void recordsAuthMetrics() throws Exception {
+		mvc.perform(get("/api/v1/users/1").header(HttpHeaders.AUTHORIZATION, token)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+
+		assertTrue(meterRegistry.counter("otp.issued").count() > 0);
+		assertTrue(meterRegistry.counter("otp.consumed").count() > 0);
+		assertTrue(meterRegistry.get("password.hash").tag("operation", "matches").timer().count() > 0);
+		assertTrue(meterRegistry.get("jwt.verify").timer().count() > 0);
+		assertTrue(meterRegistry.get("user.service").tag("method", "getUserById").timer().count() > 0);
+		assertTrue(meterRegistry.get("user.repo").tag("method", "getUserById").timer().count() > 0);
+		assertTrue(meterRegistry.get("otp.repo").tag("method", "replaceAll").timer().count() > 0);
+	}
+
+	@Test
+	void rejectsExpiredToken() throws Exception {
+		Date issued = new Date(System.currentTimeMillis() - 2 * 86400000L);
+		String expired = Jwts.builder()
+				.setSubject("user@ukr.net")
+				.setIssuedAt(issued)
+				.setExpiration(new Date(issued.getTime() + 86400000L))
+				.signWith(SignatureAlgorithm.HS512, TextCodec.BASE64.decode(tokenSecret))
+				.compact();
+
+		mvc.perform(get("/api/v1/users/1").header(HttpHeaders.AUTHORIZATION, "Bearer_" + expired)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void rejectsLogoutOfTokenWithoutId() throws Exception {
+		Date issued = new Date();
+		String withoutId = "Bearer_" + Jwts.builder()
+				.setSubject("user@ukr.net")
+				.setIssuedAt(issued)
+				.setExpiration(new Date(issued.getTime() + 86400000L))
+				.signWith(SignatureAlgorithm.HS512, TextCodec.BASE64.decode(tokenSecret))
+				.compact();
+
+		mvc.perform(post("/api/v1/auth/logout").header(HttpHeaders.AUTHORIZATION, withoutId)
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Token can not be revoked"));
+		mvc.perform(post("/api/v1/auth/logout").header(HttpHeaders.AUTHORIZATION, token)
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void rejectsReusedOtp() throws Exception {
+		mvc.perform(post("/api/v1/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"user@ukr.net\",\"password\":\"" + otp + "\"}"))
+				.andExpect(status().isForbidden());
+	}
+
+	@Test
+	void locksOutAfterFailedLogins() throws Exception {
+		String email = "ridiculus@quamdignissim.net";
+		mvc.perform(post("/api/v1/auth/request-otp").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"" + email + "\"}"))
+				.andExpect(status().isAccepted());
+		assertTrue(smtp.waitForIncomingEmail(5000, 2));
+		String body = GreenMailUtil.getBody(smtp.getReceivedMessages()[1]);
+		String ownOtp = body.substring(body.indexOf("One-time password: ") + 19).trim();
+
+		for (int i = 0; i < 5; i++) {
+			mvc.perform(post("/api/v1/auth/login").contentType(MediaType.APPLICATION_JSON)
+					.accept(MediaType.APPLICATION_JSON)
+					.content("{\"email\":\"" + email + "\",\"password\":\"wrong" + i + "\"}"))
+					.andExpect(status().isForbidden());
+		}
+		// the right OTP is not even checked while the email is locked
+		mvc.perform(post("/api/v1/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"" + email + "\",\"password\":\"" + ownOtp + "\"}"))
+				.andExpect(status().isLocked());
+		assertEquals(1.0, meterRegistry.counter("otp.auth.locked").count());
+	}
+
+	@Test
+	void requestsOtpsForGroup() throws Exception {
+		String emails = "{\"emails\":[\"quam@sedhendrerit.ca\",\"RISUS.morbi@vitae.edu\",\"nobody@ukr.net\","
+				+ "\"not-an-email\",\"quam@sedhendrerit.ca\"]}";
+
+		mvc.perform(post("/api/v1/auth/request-otp/batch").contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON).content(emails))
+				.andExpect(status().isForbidden());
+
+		mvc.perform(post("/api/v1/auth/request-otp/batch").header(HttpHeaders.AUTHORIZATION, token)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON).content(emails))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.results.length()").value(4))
+				.andExpect(jsonPath("$.results[0].status").value("issued"))
+				.andExpect(jsonPath("$.results[1].email").value("risus.morbi@vitae.edu"))
+				.andExpect(jsonPath("$.results[1].status").value("issued"))
+				.andExpect(jsonPath("$.results[2].status").value("unknown"))
+				.andExpect(jsonPath("$.results[3].status").value("invalid"));
+		assertTrue(smtp.waitForIncomingEmail(5000, 3));
+
+		mvc.perform(post("/api/v1/auth/request-otp/batch").header(HttpHeaders.AUTHORIZATION, token)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON).content(emails))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.results[0].status").value("pending"));
+	}
+
+	@Test
+	void coalescesOtpRequests() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			mvc.perform(post("/api/v1/auth/request-otp").contentType(MediaType.APPLICATION_JSON)
+					.content("{\"email\":\"Ante@magnis.ca\"}"))
+					.andExpect(status().isAccepted());
+		}
+		assertTrue(smtp.waitForIncomingEmail(5000, 2));
+		assertFalse(smtp.waitForIncomingEmail(1000, 3));
+		assertEquals("ante@magnis.ca", smtp.getReceivedMessages()[1].getAllRecipients()[0].toString());
+	}
+
+	@Test
+	void rejectsNewUserWithoutMaritalStatus() throws Exception {
+		mvc.perform(post("/api/v1/users").header(HttpHeaders.AUTHORIZATION, token)
+				.contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"single@ukr.net\",\"name\":\"Ivan\",\"lastName\":\"Franko\","
+						+ "\"birthDay\":\"1990-01-01\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.subInfos[?(@.field == 'maritalStatus')].message")
+						.value("Field MaritalStatus is required."));
+	}
+
+	@Test
+	void answersWithJsonWithoutAcceptHeader() throws Exception {
+		mvc.perform(post("/api/v1/users").header(HttpHeaders.AUTHORIZATION, token)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"single@ukr.net\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON));
+		mvc.perform(post("/api/v1/auth/login").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"email\":\"nobody@ukr.net\",\"password\":\"wrong\"}"))
+				.andExpect(status().isForbidden())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.message").value("Access denied"));
+	}
+
+	@Test
+	void rejectsRequestWithoutToken() throws Exception {
+		mvc.perform(get("/api/v1/users").contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isForbidden());
+	}
+
+}
@@ -0,0 +1,95 @@
+package depavlo.ui.rest.v1;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import depavlo.OtpDemoApplication;
+import depavlo.service.UserServiceToRepo;
+import depavlo.ui.rest.v1.model.response.UserImportResponse;
+
+@SpringBootTest(classes = { OtpDemoApplication.class }, properties = {
+		"spring.datasource.url=jdbc:h2:mem:importtest;DB_CLOSE_DELAY=-1", "app.user.importBatchSize=2" })
+@AutoConfigureMockMvc
+@ActiveProfiles("dev")
+@WithMockUser(roles = "USER")
+class UsersImportTests {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private UserServiceToRepo userServiceToRepo;
+
+	@Test
+	void importsUsersFromNdjson() throws Exception {
+		String ndjson = user("Import1@ukr.net") + "\n" + user("import2") + "\n" + user("import3@ukr.net") + "\n"
+				+ user("user@ukr.net") + "\n" + user("import4@ukr.net") + "\n";
+
+		List<UserImportResponse> results = importUsers(MediaType.APPLICATION_NDJSON_VALUE, ndjson);
+
+		assertEquals(5, results.size());
+		assertEquals(UserImportResponse.INVALID, result(results, 2).getStatus());
+		assertTrue(result(results, 2).getErrors().containsKey("email"));
+		assertEquals(UserImportResponse.CREATED, result(results, 1).getStatus());
+		assertEquals(UserImportResponse.CREATED, result(results, 3).getStatus());
+		assertEquals(UserImportResponse.FAILED, result(results, 4).getStatus());
+		assertEquals(UserImportResponse.CREATED, result(results, 5).getStatus());
+		assertEquals(result(results, 1).getId(), userServiceToRepo.loadUserByUsername("import1@ukr.net").get().getId());
+	}
+
+	@Test
+	void importsUsersFromCsv() throws Exception {
+		String csv = "email,name,lastName,birthDay,maritalStatus\n"
+				+ "csv1@ukr.net,Csv,Tester,1980-01-31,SINGLE\n"
+				+ "csv2@ukr.net,Csv,Tester,1980-01-31,\n";
+
+		List<UserImportResponse> results = importUsers(UsersController.TEXT_CSV_VALUE, csv);
+
+		assertEquals(2, results.size());
+		assertEquals(UserImportResponse.CREATED, result(results, 1).getStatus());
+		assertEquals(UserImportResponse.INVALID, result(results, 2).getStatus());
+		assertTrue(userServiceToRepo.isUserExists("csv1@ukr.net"));
+	}
+
+	private List<UserImportResponse> importUsers(String contentType, String content) throws Exception {
+		MvcResult result = mvc.perform(post("/api/v1/users/import").contentType(contentType).content(content))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		String body = mvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readerFor(UserImportResponse.class).<UserImportResponse>readValues(body).readAll();
+	}
+
+	private static UserImportResponse result(List<UserImportResponse> results, long record) {
+		return results.stream().filter(r -> r.getRecord() == record).findFirst().orElseThrow();
+	}
+
+	private static String user(String email) {
+		return "{\"email\":\"" + email + "\",\"name\":\"Import\",\"lastName\":\"Tester\",\"birthDay\":\"1980-01-31\","
+				+ "\"maritalStatus\":\"SINGLE\"}";
+	}
+
+}
@@ -0,0 +1,56 @@
+package depavlo.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+class RateLimitedLoggerTests {
+
+	private final Logger logger = (Logger) LoggerFactory.getLogger(RateLimitedLoggerTests.class);
+
+	/** The appender that takes the caller data while the caller is on the stack. */
+	private final ListAppender<ILoggingEvent> appender = new ListAppender<>() {
+
+		@Override
+		protected void append(ILoggingEvent event) {
+			event.getCallerData();
+			super.append(event);
+		}
+	};
+
+	@BeforeEach
+	void attachAppender() {
+		appender.start();
+		logger.addAppender(appender);
+	}
+
+	@AfterEach
+	void detachAppender() {
+		logger.detachAppender(appender);
+	}
+
+	@Test
+	void writesOneWarningPerIntervalWithCallerLocation() throws Exception {
+		RateLimitedLogger rateLimitedLogger = new RateLimitedLogger(logger, 200);
+		rateLimitedLogger.warn("first {}", 1);
+		rateLimitedLogger.warn("dropped {}", 2);
+		rateLimitedLogger.warn("dropped {}", 3);
+		Thread.sleep(300);
+		rateLimitedLogger.warn("next {}", 4);
+
+		assertEquals(2, appender.list.size());
+		assertEquals("first 1", appender.list.get(0).getFormattedMessage());
+		assertEquals("next 4 (2 similar message(s) suppressed)", appender.list.get(1).getFormattedMessage());
+		for (ILoggingEvent event : appender.list) {
+			assertEquals(RateLimitedLoggerTests.class.getName(), event.getCallerData()[0].getClassName());
+		}
+	}
+
+}